@@ -0,0 +1,119 @@
+package com.codewish.loadtest;
+
+import com.codewish.service.GroupEventBroadcaster;
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Open SSE streams must not each hold a pooled connection for their lifetime (open-in-view keeps the EntityManager)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"codewish.ratelimit.enabled=false",
+		"codewish.recurring.scheduler-enabled=false",
+		"codewish.datasource.replica.enabled=false",
+		"spring.jpa.show-sql=false",
+		"spring.datasource.hikari.maximum-pool-size=" + EventStreamConnectionTest.POOL_SIZE,
+		"spring.datasource.hikari.connection-timeout=2000"
+})
+class EventStreamConnectionTest {
+
+	static final int POOL_SIZE = 4;
+
+	// Each stream is for a different group so every one of them runs the membership query
+	private static final int STREAMS = POOL_SIZE * 3;
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private GroupEventBroadcaster groupEventBroadcaster;
+
+	@Test
+	void openStreamsDoNotHoldConnections() throws Exception {
+		String username = "sse" + Long.toString(System.currentTimeMillis(), 36);
+		Long userId = jdbcTemplate.queryForObject(
+				"INSERT INTO users (username, email, password) VALUES (?, ?, ?) RETURNING id",
+				Long.class, username, username + "@loadtest.local", LoadTestSeeder.PASSWORD);
+		List<Long> groupIds = new ArrayList<>();
+		for (int i = 0; i < STREAMS; i++) {
+			Long groupId = jdbcTemplate.queryForObject(
+					"INSERT INTO groups (name, description, created_by) VALUES (?, 'SSE test group', ?) RETURNING id",
+					Long.class, username + " group " + i, userId);
+			jdbcTemplate.update("INSERT INTO group_members (user_id, group_id) VALUES (?, ?)", userId, groupId);
+			groupIds.add(groupId);
+		}
+
+		HttpClient client = HttpClient.newBuilder()
+				.cookieHandler(new CookieManager())
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.build();
+		List<CompletableFuture<HttpResponse<InputStream>>> streams = new ArrayList<>();
+		try {
+			HttpResponse<String> login = client.send(HttpRequest.newBuilder(uri("/login"))
+					.header("Content-Type", "application/x-www-form-urlencoded")
+					.POST(HttpRequest.BodyPublishers.ofString("username=" + username + "&password=" + LoadTestSeeder.PASSWORD))
+					.build(), HttpResponse.BodyHandlers.ofString());
+			assertTrue(login.headers().firstValue("Location").orElse("").endsWith("/dashboard"), "login failed");
+
+			for (Long groupId : groupIds) {
+				streams.add(client.sendAsync(HttpRequest.newBuilder(uri("/groups/" + groupId + "/events")).GET().build(),
+						HttpResponse.BodyHandlers.ofInputStream()));
+			}
+
+			long deadline = System.currentTimeMillis() + 15_000;
+			while (subscriberCount(groupIds) < STREAMS && System.currentTimeMillis() < deadline) {
+				Thread.sleep(50);
+			}
+			assertEquals(STREAMS, subscriberCount(groupIds), "not every stream was accepted");
+
+			HikariDataSource pool = dataSource.unwrap(HikariDataSource.class);
+			assertTrue(pool.getHikariPoolMXBean().getActiveConnections() < POOL_SIZE,
+					"open streams are holding pooled connections");
+
+			// A normal page still gets a connection well within the pool's connection timeout
+			HttpResponse<String> page = client.send(HttpRequest.newBuilder(uri("/groups/" + groupIds.get(0)))
+					.timeout(Duration.ofSeconds(10)).GET().build(), HttpResponse.BodyHandlers.ofString());
+			assertEquals(200, page.statusCode());
+		} finally {
+			for (CompletableFuture<HttpResponse<InputStream>> stream : streams) {
+				if (stream.isDone() && !stream.isCompletedExceptionally()) {
+					stream.join().body().close();
+				} else {
+					stream.cancel(true);
+				}
+			}
+			jdbcTemplate.update("DELETE FROM groups WHERE id = ANY(?)", (Object) groupIds.toArray(new Long[0]));
+			jdbcTemplate.update("DELETE FROM users WHERE id = ?", userId);
+		}
+	}
+
+	private int subscriberCount(List<Long> groupIds) {
+		return groupIds.stream().mapToInt(groupEventBroadcaster::getSubscriberCount).sum();
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
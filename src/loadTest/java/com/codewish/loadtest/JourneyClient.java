@@ -0,0 +1,116 @@
+package com.codewish.loadtest;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Random;
+import java.util.StringJoiner;
+
+// One simulated user: login -> dashboard -> group -> add expense -> settlements, each step timed separately
+class JourneyClient {
+
+	private final HttpClient httpClient;
+	private final CookieManager cookieManager = new CookieManager();
+	private final String baseUrl;
+	private final LatencyRecorder recorder;
+	private final String username;
+	private final long userId;
+	private final long groupId;
+	private final long[] groupMembers;
+	private final Random random;
+
+	JourneyClient(String baseUrl, LatencyRecorder recorder, String username, long userId, long groupId,
+			long[] groupMembers, long seed) {
+		this.baseUrl = baseUrl;
+		this.recorder = recorder;
+		this.username = username;
+		this.userId = userId;
+		this.groupId = groupId;
+		this.groupMembers = groupMembers;
+		this.random = new Random(seed);
+		// Redirects are not followed so every endpoint is measured on its own
+		this.httpClient = HttpClient.newBuilder()
+				.cookieHandler(cookieManager)
+				.followRedirects(HttpClient.Redirect.NEVER)
+				.connectTimeout(Duration.ofSeconds(10))
+				.build();
+	}
+
+	// Returns true when every step succeeded; recording is skipped during warmup
+	boolean runJourney(boolean record) throws InterruptedException {
+		cookieManager.getCookieStore().removeAll();
+
+		HttpResponse<String> login = post("login", "/login", form("username", username, "password", LoadTestSeeder.PASSWORD),
+				record);
+		if (login == null || !login.headers().firstValue("Location").orElse("").endsWith("/dashboard")) {
+			return false;
+		}
+
+		boolean ok = get("dashboard", "/dashboard", record) != null;
+		ok &= get("group", "/groups/" + groupId, record) != null;
+
+		StringJoiner expense = new StringJoiner("&");
+		expense.add(form("groupId", String.valueOf(groupId),
+				"description", "Load test expense",
+				"amount", BigDecimal.valueOf(100 + random.nextInt(20_000), 2).toPlainString(),
+				"expenseDate", LocalDate.now().toString(),
+				"paidByUserId", String.valueOf(userId)));
+		for (long memberId : groupMembers) {
+			expense.add("participantIds=" + memberId);
+		}
+		ok &= post("add-expense", "/expenses/create", expense.toString(), record) != null;
+
+		ok &= get("settlements", "/groups/" + groupId + "/settlements", record) != null;
+
+		// Not part of the measured journey; keeps thousands of abandoned sessions from piling up on the server
+		get("logout", "/logout", false);
+		return ok;
+	}
+
+	private HttpResponse<String> get(String endpoint, String path, boolean record) throws InterruptedException {
+		return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path)).GET(), record);
+	}
+
+	private HttpResponse<String> post(String endpoint, String path, String body, boolean record) throws InterruptedException {
+		return send(endpoint, HttpRequest.newBuilder(URI.create(baseUrl + path))
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(body)), record);
+	}
+
+	// Returns null on a transport error or a 4xx/5xx status
+	private HttpResponse<String> send(String endpoint, HttpRequest.Builder request, boolean record)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		HttpResponse<String> response;
+		try {
+			response = httpClient.send(request.timeout(Duration.ofSeconds(30)).build(),
+					HttpResponse.BodyHandlers.ofString());
+		} catch (IOException e) {
+			response = null;
+		}
+		long elapsed = System.nanoTime() - start;
+
+		boolean ok = response != null && response.statusCode() < 400;
+		if (record) {
+			recorder.record(endpoint, elapsed, ok);
+		}
+		return ok ? response : null;
+	}
+
+	private static String form(String... pairs) {
+		StringJoiner joiner = new StringJoiner("&");
+		for (int i = 0; i < pairs.length; i += 2) {
+			joiner.add(URLEncoder.encode(pairs[i], StandardCharsets.UTF_8) + "="
+					+ URLEncoder.encode(pairs[i + 1], StandardCharsets.UTF_8));
+		}
+		return joiner.toString();
+	}
+}
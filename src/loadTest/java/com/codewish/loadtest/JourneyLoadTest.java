@@ -0,0 +1,131 @@
+package com.codewish.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.io.File;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Boots the full application on a random port against the configured database (see LoadTestSettings for knobs)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+		"codewish.ratelimit.enabled=false",
+		"codewish.recurring.scheduler-enabled=false",
+		"spring.jpa.show-sql=false",
+		"server.tomcat.threads.max=400"
+})
+class JourneyLoadTest {
+
+	private static final Logger log = LoggerFactory.getLogger(JourneyLoadTest.class);
+
+	private static final String[] ENDPOINTS = {"login", "dashboard", "group", "add-expense", "settlements"};
+
+	@LocalServerPort
+	private int port;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Test
+	void userJourneys() throws Exception {
+		LoadTestSettings settings = new LoadTestSettings();
+		LoadTestSeeder seeder = new LoadTestSeeder(jdbcTemplate, settings);
+
+		long seedStart = System.nanoTime();
+		LoadTestSeeder.SeededData data = seeder.seed();
+		double seedSeconds = (System.nanoTime() - seedStart) / 1e9;
+
+		try {
+			LatencyRecorder recorder = new LatencyRecorder();
+			AtomicLong journeys = new AtomicLong();
+			AtomicLong failedJourneys = new AtomicLong();
+
+			long warmupEnd = System.nanoTime() + settings.warmupSeconds * 1_000_000_000L;
+			long end = warmupEnd + settings.durationSeconds * 1_000_000_000L;
+
+			List<Future<?>> futures = new ArrayList<>();
+			try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+				for (int c = 0; c < settings.clients; c++) {
+					int group = c % settings.groups;
+					int member = (c / settings.groups) % settings.membersPerGroup;
+					int userIndex = data.groupMemberIndexes[group][member];
+					JourneyClient client = new JourneyClient("http://localhost:" + port, recorder,
+							data.usernames[userIndex], data.userIds[userIndex], data.groupIds[group],
+							data.groupMembers[group], settings.seed + c);
+
+					futures.add(executor.submit(() -> {
+						while (System.nanoTime() < end) {
+							boolean record = System.nanoTime() >= warmupEnd;
+							boolean ok = client.runJourney(record);
+							if (record) {
+								(ok ? journeys : failedJourneys).incrementAndGet();
+							}
+						}
+						return null;
+					}));
+				}
+				for (Future<?> future : futures) {
+					future.get();
+				}
+			}
+
+			writeReport(settings, recorder, journeys.get(), failedJourneys.get(), seedSeconds);
+			assertTrue(journeys.get() > 0, "no journey completed");
+		} finally {
+			if (settings.cleanup) {
+				seeder.cleanup(data);
+			}
+		}
+	}
+
+	private void writeReport(LoadTestSettings settings, LatencyRecorder recorder, long journeys, long failedJourneys,
+			double seedSeconds) throws Exception {
+		double seconds = settings.durationSeconds;
+
+		Map<String, Object> scale = new LinkedHashMap<>();
+		scale.put("users", settings.users);
+		scale.put("groups", settings.groups);
+		scale.put("membersPerGroup", settings.membersPerGroup);
+		scale.put("expensesPerGroup", settings.expensesPerGroup);
+		scale.put("clients", settings.clients);
+		scale.put("warmupSeconds", settings.warmupSeconds);
+		scale.put("durationSeconds", settings.durationSeconds);
+		scale.put("seed", settings.seed);
+
+		Map<String, Object> endpoints = new LinkedHashMap<>();
+		for (String endpoint : ENDPOINTS) {
+			endpoints.put(endpoint, recorder.summary(endpoint, seconds));
+		}
+
+		Map<String, Object> report = new LinkedHashMap<>();
+		report.put("finishedAt", Instant.now().toString());
+		report.put("scale", scale);
+		report.put("seedSeconds", Math.round(seedSeconds * 1000) / 1000.0);
+		report.put("journeys", journeys);
+		report.put("failedJourneys", failedJourneys);
+		report.put("journeysPerSecond", Math.round(journeys / seconds * 1000) / 1000.0);
+		report.put("endpoints", endpoints);
+
+		File file = new File(settings.report);
+		if (file.getParentFile() != null) {
+			file.getParentFile().mkdirs();
+		}
+		new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+		log.info("Load test report written to {}", file.getAbsolutePath());
+	}
+}
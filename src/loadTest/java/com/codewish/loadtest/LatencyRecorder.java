@@ -0,0 +1,75 @@
+package com.codewish.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Keeps every sample per endpoint so percentiles are exact rather than bucketed
+class LatencyRecorder {
+
+	private final Map<String, Samples> endpoints = new ConcurrentHashMap<>();
+
+	void record(String endpoint, long nanos, boolean ok) {
+		endpoints.computeIfAbsent(endpoint, name -> new Samples()).add(nanos, ok);
+	}
+
+	Map<String, Object> summary(String endpoint, double seconds) {
+		Samples samples = endpoints.get(endpoint);
+		long[] sorted = samples != null ? samples.sorted() : new long[0];
+		long errors = samples != null ? samples.errors() : 0;
+
+		Map<String, Object> summary = new LinkedHashMap<>();
+		summary.put("requests", sorted.length);
+		summary.put("errors", errors);
+		summary.put("throughputPerSecond", round(sorted.length / seconds));
+		summary.put("p50Ms", millis(percentile(sorted, 0.50)));
+		summary.put("p99Ms", millis(percentile(sorted, 0.99)));
+		summary.put("p999Ms", millis(percentile(sorted, 0.999)));
+		summary.put("maxMs", millis(sorted.length > 0 ? sorted[sorted.length - 1] : 0));
+		return summary;
+	}
+
+	// Nearest-rank percentile
+	static long percentile(long[] sorted, double quantile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int rank = (int) Math.ceil(quantile * sorted.length);
+		return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+	}
+
+	private static double millis(long nanos) {
+		return round(nanos / 1_000_000.0);
+	}
+
+	private static double round(double value) {
+		return Math.round(value * 1000) / 1000.0;
+	}
+
+	private static class Samples {
+		private long[] values = new long[1024];
+		private int size;
+		private long errors;
+
+		synchronized void add(long nanos, boolean ok) {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, size * 2);
+			}
+			values[size++] = nanos;
+			if (!ok) {
+				errors++;
+			}
+		}
+
+		synchronized long[] sorted() {
+			long[] copy = Arrays.copyOf(values, size);
+			Arrays.sort(copy);
+			return copy;
+		}
+
+		synchronized long errors() {
+			return errors;
+		}
+	}
+}
@@ -0,0 +1,148 @@
+package com.codewish.loadtest;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+// Writes synthetic users, groups, members and expenses with JDBC batches; everything is tagged with a run prefix
+class LoadTestSeeder {
+
+	static final String PASSWORD = "loadtest";
+
+	private static final int BATCH_SIZE = 5000;
+
+	private final JdbcTemplate jdbcTemplate;
+	private final LoadTestSettings settings;
+
+	LoadTestSeeder(JdbcTemplate jdbcTemplate, LoadTestSettings settings) {
+		this.jdbcTemplate = jdbcTemplate;
+		this.settings = settings;
+	}
+
+	SeededData seed() {
+		if (settings.membersPerGroup > settings.users) {
+			throw new IllegalArgumentException("loadtest.membersPerGroup cannot exceed loadtest.users");
+		}
+		Random random = new Random(settings.seed);
+		String prefix = "lt" + Long.toString(System.currentTimeMillis(), 36) + "_";
+
+		long[] userIds = reserveIds("users", settings.users);
+		String[] usernames = new String[settings.users];
+		List<Object[]> userRows = new ArrayList<>();
+		for (int i = 0; i < settings.users; i++) {
+			usernames[i] = prefix + i;
+			userRows.add(new Object[]{userIds[i], usernames[i], usernames[i] + "@loadtest.local", PASSWORD});
+		}
+		insert("INSERT INTO users (id, username, email, password) VALUES (?, ?, ?, ?)", userRows);
+
+		// Members are consecutive users (wrapping), so every user belongs to roughly the same number of groups
+		long[] groupIds = reserveIds("groups", settings.groups);
+		long[][] groupMembers = new long[settings.groups][];
+		int[][] groupMemberIndexes = new int[settings.groups][];
+		List<Object[]> groupRows = new ArrayList<>();
+		List<Object[]> memberRows = new ArrayList<>();
+		for (int g = 0; g < settings.groups; g++) {
+			groupMembers[g] = new long[settings.membersPerGroup];
+			groupMemberIndexes[g] = new int[settings.membersPerGroup];
+			for (int m = 0; m < settings.membersPerGroup; m++) {
+				int userIndex = (g * settings.membersPerGroup + m) % settings.users;
+				groupMembers[g][m] = userIds[userIndex];
+				groupMemberIndexes[g][m] = userIndex;
+				memberRows.add(new Object[]{userIds[userIndex], groupIds[g]});
+			}
+			groupRows.add(new Object[]{groupIds[g], prefix + "group " + g, "Load test group", groupMembers[g][0]});
+		}
+		insert("INSERT INTO groups (id, name, description, created_by) VALUES (?, ?, ?, ?)", groupRows);
+		insert("INSERT INTO group_members (user_id, group_id) VALUES (?, ?) ON CONFLICT DO NOTHING", memberRows);
+
+		seedExpenses(random, groupIds, groupMembers);
+
+		return new SeededData(prefix, userIds, usernames, groupIds, groupMembers, groupMemberIndexes);
+	}
+
+	void cleanup(SeededData data) {
+		Long[] groupIds = boxed(data.groupIds);
+		Long[] userIds = boxed(data.userIds);
+		// Groups cascade to members, expenses, splits and rollups
+		jdbcTemplate.update("DELETE FROM groups WHERE id = ANY(?)", (Object) groupIds);
+		jdbcTemplate.update("DELETE FROM users WHERE id = ANY(?)", (Object) userIds);
+	}
+
+	private void seedExpenses(Random random, long[] groupIds, long[][] groupMembers) {
+		int total = settings.groups * settings.expensesPerGroup;
+		long[] expenseIds = reserveIds("expenses", total);
+		LocalDateTime now = LocalDateTime.now();
+
+		List<Object[]> expenseRows = new ArrayList<>();
+		List<Object[]> splitRows = new ArrayList<>();
+		int next = 0;
+		for (int g = 0; g < settings.groups; g++) {
+			long[] members = groupMembers[g];
+			for (int e = 0; e < settings.expensesPerGroup; e++) {
+				long expenseId = expenseIds[next++];
+				long payer = members[random.nextInt(members.length)];
+				BigDecimal amount = BigDecimal.valueOf(100 + random.nextInt(500_000), 2);
+				LocalDateTime created = now.minusMinutes((long) (settings.expensesPerGroup - e) * 90);
+
+				expenseRows.add(new Object[]{expenseId, groupIds[g], "Seeded expense " + e, amount, payer,
+						Date.valueOf(created.toLocalDate()), Timestamp.valueOf(created)});
+
+				// Equal split; the first member absorbs the rounding remainder
+				BigDecimal share = amount.divide(BigDecimal.valueOf(members.length), 2, RoundingMode.DOWN);
+				BigDecimal remainder = amount.subtract(share.multiply(BigDecimal.valueOf(members.length)));
+				for (int m = 0; m < members.length; m++) {
+					splitRows.add(new Object[]{expenseId, groupIds[g], members[m], m == 0 ? share.add(remainder) : share});
+				}
+			}
+		}
+
+		insert("INSERT INTO expenses (id, group_id, description, amount, paid_by_user_id, expense_date, created_date) " +
+				"VALUES (?, ?, ?, ?, ?, ?, ?)", expenseRows);
+		insert("INSERT INTO expense_splits (expense_id, group_id, user_id, amount_owed) VALUES (?, ?, ?, ?)", splitRows);
+	}
+
+	private long[] reserveIds(String table, int count) {
+		List<Long> ids = jdbcTemplate.queryForList(
+				"SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)", Long.class, table, count);
+		return ids.stream().mapToLong(Long::longValue).toArray();
+	}
+
+	private void insert(String sql, List<Object[]> rows) {
+		for (int from = 0; from < rows.size(); from += BATCH_SIZE) {
+			jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(rows.size(), from + BATCH_SIZE)));
+		}
+	}
+
+	private static Long[] boxed(long[] values) {
+		Long[] boxed = new Long[values.length];
+		for (int i = 0; i < values.length; i++) {
+			boxed[i] = values[i];
+		}
+		return boxed;
+	}
+
+	static class SeededData {
+		final String prefix;
+		final long[] userIds;
+		final String[] usernames;
+		final long[] groupIds;
+		final long[][] groupMembers;
+		final int[][] groupMemberIndexes;
+
+		SeededData(String prefix, long[] userIds, String[] usernames, long[] groupIds, long[][] groupMembers,
+				int[][] groupMemberIndexes) {
+			this.prefix = prefix;
+			this.userIds = userIds;
+			this.usernames = usernames;
+			this.groupIds = groupIds;
+			this.groupMembers = groupMembers;
+			this.groupMemberIndexes = groupMemberIndexes;
+		}
+	}
+}
@@ -0,0 +1,20 @@
+package com.codewish.loadtest;
+
+// Scale and duration of one run; every value can be overridden with -Dloadtest.<name>=...
+class LoadTestSettings {
+
+	final int users = intProperty("users", 2000);
+	final int groups = intProperty("groups", 250);
+	final int membersPerGroup = intProperty("membersPerGroup", 8);
+	final int expensesPerGroup = intProperty("expensesPerGroup", 200);
+	final int clients = intProperty("clients", 200);
+	final int warmupSeconds = intProperty("warmupSeconds", 10);
+	final int durationSeconds = intProperty("durationSeconds", 60);
+	final long seed = Long.getLong("loadtest.seed", 42L);
+	final boolean cleanup = Boolean.parseBoolean(System.getProperty("loadtest.cleanup", "true"));
+	final String report = System.getProperty("loadtest.report", "build/reports/loadtest/journeys.json");
+
+	private static int intProperty(String name, int defaultValue) {
+		return Integer.getInteger("loadtest." + name, defaultValue);
+	}
+}
@@ -0,0 +1,77 @@
+package com.codewish.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+// Sends @Transactional(readOnly = true) work to the replica pool and everything else to the primary
+@Configuration
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "codewish.datasource.replica", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfig implements WebMvcConfigurer {
+
+    private final ReplicaDataSourceProperties replicaProperties;
+
+    public DataSourceRoutingConfig(ReplicaDataSourceProperties replicaProperties) {
+        this.replicaProperties = replicaProperties;
+    }
+
+    @Bean
+    @ConfigurationProperties(prefix = "spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public HikariDataSource replicaDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName("replica");
+        dataSource.setDriverClassName(properties.determineDriverClassName());
+        dataSource.setJdbcUrl(replicaProperties.getUrl() != null
+                ? replicaProperties.getUrl() : properties.determineUrl());
+        dataSource.setUsername(replicaProperties.getUsername() != null
+                ? replicaProperties.getUsername() : properties.determineUsername());
+        dataSource.setPassword(replicaProperties.getPassword() != null
+                ? replicaProperties.getPassword() : properties.determinePassword());
+        dataSource.setMaximumPoolSize(replicaProperties.getMaximumPoolSize());
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+                                 @Qualifier("replicaDataSource") DataSource replicaDataSource) {
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(ReplicaRoutingDataSource.Route.PRIMARY, primaryDataSource);
+        targets.put(ReplicaRoutingDataSource.Route.REPLICA, replicaDataSource);
+
+        ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource();
+        routingDataSource.setTargetDataSources(targets);
+        routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+        routingDataSource.afterPropertiesSet();
+
+        // Defer the physical connection until the first statement, by which point
+        // the transaction's read-only flag is known
+        return new LazyConnectionDataSourceProxy(routingDataSource);
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ReadYourWritesInterceptor(replicaProperties.getReadYourWritesWindow()));
+    }
+}
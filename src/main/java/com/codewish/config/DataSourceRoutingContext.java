@@ -0,0 +1,75 @@
+package com.codewish.config;
+
+import jakarta.servlet.http.HttpSession;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+// Per-thread routing hints shared by the routing datasource and the web interceptor
+public final class DataSourceRoutingContext {
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    // Bound to the current transaction once its write has been recorded
+    private static final Object WRITE_MARKER = new Object();
+
+    private DataSourceRoutingContext() {
+    }
+
+    public static void forcePrimary() {
+        FORCE_PRIMARY.set(Boolean.TRUE);
+    }
+
+    public static boolean isPrimaryForced() {
+        return Boolean.TRUE.equals(FORCE_PRIMARY.get());
+    }
+
+    // Called when a request opens a write transaction: the rest of the request reads from the primary,
+    // and the session is stamped on commit, before the response (usually a redirect) goes out
+    public static void markWrite() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servletAttributes)) {
+            // Background work has no follow-up reads to protect
+            return;
+        }
+        forcePrimary();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Every connection lookup in the transaction lands here; register the commit hook only once
+            if (TransactionSynchronizationManager.hasResource(WRITE_MARKER)) {
+                return;
+            }
+            TransactionSynchronizationManager.bindResource(WRITE_MARKER, Boolean.TRUE);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    stampSession(servletAttributes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(WRITE_MARKER);
+                }
+            });
+        } else {
+            stampSession(servletAttributes);
+        }
+    }
+
+    public static void clear() {
+        FORCE_PRIMARY.remove();
+    }
+
+    private static void stampSession(ServletRequestAttributes attributes) {
+        try {
+            HttpSession session = attributes.getRequest().getSession(false);
+            if (session != null) {
+                session.setAttribute(ReadYourWritesInterceptor.LAST_WRITE_ATTRIBUTE, System.currentTimeMillis());
+            }
+        } catch (IllegalStateException e) {
+            // Session was invalidated during the request (logout)
+        }
+    }
+}
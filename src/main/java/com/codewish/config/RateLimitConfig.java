@@ -0,0 +1,46 @@
+package com.codewish.config;
+
+import com.codewish.service.GroupService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+@Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
+@ConditionalOnProperty(prefix = "codewish.ratelimit", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final RateLimitProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final TokenBucketRateLimiter limiter;
+    private final GroupService groupService;
+
+    public RateLimitConfig(RateLimitProperties properties, MeterRegistry meterRegistry, @Lazy GroupService groupService) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+        this.groupService = groupService;
+        this.limiter = new TokenBucketRateLimiter(properties.getMaxBuckets());
+        Gauge.builder("codewish.ratelimit.buckets", limiter, TokenBucketRateLimiter::size)
+                .description("Live rate limiter buckets")
+                .register(meterRegistry);
+    }
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter() {
+        return limiter;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        for (RateLimitProperties.Rule rule : properties.getRules()) {
+            registry.addInterceptor(new RateLimitInterceptor(rule, limiter, groupService::isMember, meterRegistry))
+                    .addPathPatterns(rule.getPath());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.codewish.config;
+
+import com.codewish.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+// Applies one configured rule; registered for that rule's path pattern only
+public class RateLimitInterceptor implements HandlerInterceptor {
+
+    private final RateLimitProperties.Rule rule;
+    private final TokenBucketRateLimiter limiter;
+    private final BiPredicate<Long, Long> isMember;
+    private final Counter userRejections;
+    private final Counter groupRejections;
+
+    public RateLimitInterceptor(RateLimitProperties.Rule rule, TokenBucketRateLimiter limiter,
+                                BiPredicate<Long, Long> isMember, MeterRegistry meterRegistry) {
+        this.rule = rule;
+        this.limiter = limiter;
+        this.isMember = isMember;
+        this.userRejections = Counter.builder("codewish.ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("rule", rule.getName())
+                .tag("scope", "user")
+                .register(meterRegistry);
+        this.groupRejections = Counter.builder("codewish.ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("rule", rule.getName())
+                .tag("scope", "group")
+                .register(meterRegistry);
+    }
+
+    // Only signed-in users are limited (the controllers turn everyone else away), and a group's budget is only
+    // spent by its members, so nobody can drain a group they do not belong to
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws IOException {
+        if (!rule.getMethod().equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        HttpSession session = request.getSession(false);
+        User user = session != null ? (User) session.getAttribute("user") : null;
+        if (user == null) {
+            return true;
+        }
+
+        TokenBucketRateLimiter.Permit userPermit = null;
+        TokenBucketRateLimiter.Permit groupPermit = null;
+        List<TokenBucketRateLimiter.Permit> permits = new ArrayList<>(2);
+
+        RateLimitProperties.Limit perUser = rule.getPerUser();
+        if (perUser != null) {
+            userPermit = new TokenBucketRateLimiter.Permit(rule.getName() + ":user:" + user.getId(),
+                    perUser.getCapacity(), perUser.getRefillPerMinute());
+            permits.add(userPermit);
+        }
+
+        RateLimitProperties.Limit perGroup = rule.getPerGroup();
+        if (perGroup != null) {
+            Long groupId = resolveGroupId(request);
+            if (groupId != null && isMember.test(groupId, user.getId())) {
+                groupPermit = new TokenBucketRateLimiter.Permit(rule.getName() + ":group:" + groupId,
+                        perGroup.getCapacity(), perGroup.getRefillPerMinute());
+                permits.add(groupPermit);
+            }
+        }
+
+        if (permits.isEmpty()) {
+            return true;
+        }
+        // Both buckets are checked before either is charged
+        long wait = limiter.tryAcquireAll(permits);
+        if (wait > 0) {
+            if (userPermit != null && userPermit.getWait() > 0) {
+                userRejections.increment();
+            }
+            if (groupPermit != null && groupPermit.getWait() > 0) {
+                groupRejections.increment();
+            }
+            return reject(response, wait);
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Long resolveGroupId(HttpServletRequest request) {
+        Map<String, String> pathVariables =
+                (Map<String, String>) request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String value = pathVariables != null && pathVariables.containsKey(rule.getGroupParam())
+                ? pathVariables.get(rule.getGroupParam())
+                : request.getParameter(rule.getGroupParam());
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private boolean reject(HttpServletResponse response, long waitNanos) throws IOException {
+        long retryAfterSeconds = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1));
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setContentType("text/plain");
+        response.getWriter().write("Too many requests, retry in " + retryAfterSeconds + "s");
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.codewish.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "codewish.ratelimit")
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    // Upper bound on live buckets; idle (fully refilled) buckets are swept out
+    private int maxBuckets = 100_000;
+
+    private List<Rule> rules = new ArrayList<>();
+
+    @Data
+    public static class Rule {
+        private String name;
+        private String method = "POST";
+        private String path;
+        // Path variable or request parameter holding the group id
+        private String groupParam = "groupId";
+        private Limit perUser;
+        private Limit perGroup;
+    }
+
+    @Data
+    public static class Limit {
+        // Requests allowed in a burst
+        private int capacity;
+        // Sustained rate at which tokens come back
+        private int refillPerMinute;
+    }
+}
@@ -0,0 +1,44 @@
+package com.codewish.config;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpSession;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import java.time.Duration;
+
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor {
+
+    static final String LAST_WRITE_ATTRIBUTE = "lastPrimaryWriteAt";
+
+    private final long windowMillis;
+
+    public ReadYourWritesInterceptor(Duration window) {
+        this.windowMillis = window.toMillis();
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        // Pooled threads may carry a flag from a request that never reached afterCompletion
+        DataSourceRoutingContext.clear();
+        HttpSession session = request.getSession(false);
+        if (session != null) {
+            Long lastWriteAt = (Long) session.getAttribute(LAST_WRITE_ATTRIBUTE);
+            if (lastWriteAt != null && System.currentTimeMillis() - lastWriteAt < windowMillis) {
+                DataSourceRoutingContext.forcePrimary();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        // The write marker itself is set on commit by DataSourceRoutingContext.markWrite
+        DataSourceRoutingContext.clear();
+    }
+
+    // Async requests (the SSE event stream) hand the thread back without calling afterCompletion
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        DataSourceRoutingContext.clear();
+    }
+}
@@ -0,0 +1,24 @@
+package com.codewish.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "codewish.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    private boolean enabled = false;
+
+    private String url;
+
+    // Fall back to spring.datasource credentials when not set
+    private String username;
+
+    private String password;
+
+    private int maximumPoolSize = 10;
+
+    // How long a session keeps reading from the primary after its own write
+    private Duration readYourWritesWindow = Duration.ofSeconds(5);
+}
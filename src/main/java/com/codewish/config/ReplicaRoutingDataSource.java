@@ -0,0 +1,28 @@
+package com.codewish.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    public enum Route {
+        PRIMARY,
+        REPLICA
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean readOnly = TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+
+        // Remember the write so the rest of this request and the caller's next requests skip the lagging replica
+        if (!readOnly && TransactionSynchronizationManager.isActualTransactionActive()) {
+            DataSourceRoutingContext.markWrite();
+            return Route.PRIMARY;
+        }
+
+        if (DataSourceRoutingContext.isPrimaryForced()) {
+            return Route.PRIMARY;
+        }
+        return readOnly ? Route.REPLICA : Route.PRIMARY;
+    }
+}
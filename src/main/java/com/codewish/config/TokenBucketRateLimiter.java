@@ -0,0 +1,134 @@
+package com.codewish.config;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lock-free token buckets in GCRA form: each bucket is a single "theoretical arrival time"
+// updated by CAS, so an allowed request costs one map lookup and one compare-and-set
+public class TokenBucketRateLimiter {
+
+    private final Map<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final int maxBuckets;
+
+    public TokenBucketRateLimiter(int maxBuckets) {
+        this.maxBuckets = maxBuckets;
+    }
+
+    // Returns 0 when the request may proceed, otherwise the nanoseconds until a token is available
+    public long tryAcquire(String key, int capacity, int refillPerMinute) {
+        return tryAcquireAll(List.of(new Permit(key, capacity, refillPerMinute)));
+    }
+
+    // Takes a token from every bucket or from none of them. Returns 0 when all were charged, otherwise
+    // the longest wait; each permit's wait then says which buckets were empty
+    public long tryAcquireAll(List<Permit> permits) {
+        long now = System.nanoTime();
+        AtomicLong[] resolved = new AtomicLong[permits.size()];
+        long longest = 0;
+        for (int i = 0; i < permits.size(); i++) {
+            Permit permit = permits.get(i);
+            resolved[i] = bucket(permit.key, now);
+            if (resolved[i] != null) {
+                permit.wait = Math.max(0, Math.max(resolved[i].get(), now) + permit.emissionInterval()
+                        - now - permit.burstWindow());
+                longest = Math.max(longest, permit.wait);
+            }
+        }
+        if (longest > 0) {
+            return longest;
+        }
+
+        for (int i = 0; i < permits.size(); i++) {
+            if (resolved[i] == null) {
+                continue;
+            }
+            long wait = acquire(resolved[i], permits.get(i), now);
+            if (wait > 0) {
+                // Lost a race for the last token: give back what was already taken
+                permits.get(i).wait = wait;
+                for (int j = 0; j < i; j++) {
+                    if (resolved[j] != null) {
+                        resolved[j].addAndGet(-permits.get(j).emissionInterval());
+                    }
+                }
+                return wait;
+            }
+        }
+        return 0;
+    }
+
+    // Null when the map is full: a fresh bucket would have allowed the request anyway. Idle buckets are
+    // swept on a schedule, never on the request thread
+    private AtomicLong bucket(String key, long now) {
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= maxBuckets) {
+                return null;
+            }
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(now));
+        }
+        return bucket;
+    }
+
+    private long acquire(AtomicLong bucket, Permit permit, long now) {
+        long emissionInterval = permit.emissionInterval();
+        long burstWindow = permit.burstWindow();
+        while (true) {
+            long theoreticalArrival = bucket.get();
+            long next = Math.max(theoreticalArrival, now) + emissionInterval;
+            long wait = next - now - burstWindow;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(theoreticalArrival, next)) {
+                return 0;
+            }
+        }
+    }
+
+    public int size() {
+        return buckets.size();
+    }
+
+    // A bucket whose arrival time has passed is full again and indistinguishable from a new one
+    @Scheduled(fixedDelayString = "${codewish.ratelimit.sweep-ms:30000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        Iterator<AtomicLong> iterator = buckets.values().iterator();
+        while (iterator.hasNext()) {
+            if (iterator.next().get() - now <= 0) {
+                iterator.remove();
+            }
+        }
+    }
+
+    // One bucket to charge in tryAcquireAll
+    public static class Permit {
+        private final String key;
+        private final int capacity;
+        private final int refillPerMinute;
+        private long wait;
+
+        public Permit(String key, int capacity, int refillPerMinute) {
+            this.key = key;
+            this.capacity = capacity;
+            this.refillPerMinute = refillPerMinute;
+        }
+
+        long emissionInterval() {
+            return TimeUnit.MINUTES.toNanos(1) / Math.max(1, refillPerMinute);
+        }
+
+        long burstWindow() {
+            return emissionInterval() * Math.max(1, capacity);
+        }
+
+        // Nanoseconds until this bucket has a token; 0 if it had one
+        public long getWait() { return wait; }
+    }
+}
@@ -0,0 +1,46 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.ActivityFeedService;
+import com.codewish.service.GroupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/activity")
+public class ActivityController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ActivityFeedService activityFeedService;
+
+    @Autowired
+    private GroupService groupService;
+
+    // Newest first; pass nextCursor from the previous page to continue
+    @GetMapping
+    public ResponseEntity<?> activity(@PathVariable Long groupId,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "30") int limit,
+                                      HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(activityFeedService.getActivity(groupId, cursor,
+                    Math.max(1, Math.min(limit, MAX_LIMIT))));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.GroupService;
+import com.codewish.service.SpendingAnalyticsService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/analytics")
+public class AnalyticsController {
+
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @GetMapping("/monthly")
+    public ResponseEntity<List<SpendingAnalyticsService.MonthlySpending>> monthlySpending(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        YearMonth toMonth;
+        YearMonth fromMonth;
+        try {
+            // Defaults to the last twelve months
+            toMonth = to != null ? YearMonth.parse(to) : YearMonth.now();
+            fromMonth = from != null ? YearMonth.parse(from) : toMonth.minusMonths(11);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(spendingAnalyticsService.getGroupMonthlySpending(groupId, fromMonth, toMonth));
+    }
+}
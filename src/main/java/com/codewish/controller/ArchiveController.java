@@ -0,0 +1,43 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.GroupService;
+import com.codewish.service.HistoryCompactionService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/archive")
+public class ArchiveController {
+
+    private static final int MAX_LIMIT = 200;
+
+    @Autowired
+    private HistoryCompactionService historyCompactionService;
+
+    @Autowired
+    private GroupService groupService;
+
+    // Pages backwards through archived history; pass the last id seen as beforeId
+    @GetMapping
+    public ResponseEntity<List<HistoryCompactionService.ArchivedExpense>> archivedExpenses(
+            @PathVariable Long groupId,
+            @RequestParam(required = false) Long beforeId,
+            @RequestParam(defaultValue = "50") int limit,
+            HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(historyCompactionService.getArchivedExpenses(groupId, beforeId,
+                Math.max(1, Math.min(limit, MAX_LIMIT))));
+    }
+}
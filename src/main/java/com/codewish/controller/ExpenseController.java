@@ -4,8 +4,10 @@ import com.codewish.model.GroupMember;
 import com.codewish.model.User;
 import com.codewish.model.Group;
 import com.codewish.model.Expense;
+import com.codewish.model.ExpenseSplit;
 import com.codewish.service.GroupService;
 import com.codewish.service.ExpenseService;
+import com.codewish.service.ExchangeRateService;
 import com.codewish.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Controller;
@@ -17,6 +19,7 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @Controller
 @RequestMapping("/expenses")
@@ -28,6 +31,9 @@ public class ExpenseController {
     @Autowired
     private GroupService groupService;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
     @GetMapping("/create")
     public String createExpensePage(@RequestParam Long groupId, HttpSession session, Model model) {
         User user = (User) session.getAttribute("user");
@@ -45,13 +51,14 @@ public class ExpenseController {
         model.addAttribute("user", user);
         model.addAttribute("group", groupOpt.get());
         model.addAttribute("members", members);
+        model.addAttribute("currencies", exchangeRateService.current().getCurrencies());
         return "create-expense";
     }
 
     @PostMapping("/create")
     public String createExpense(@RequestParam Long groupId, @RequestParam String description,
-                                @RequestParam BigDecimal amount, @RequestParam String expenseDate,
-                                @RequestParam Long paidByUserId,
+                                @RequestParam BigDecimal amount, @RequestParam(required = false) String currency,
+                                @RequestParam String expenseDate, @RequestParam Long paidByUserId,
                                 @RequestParam(required = false) List<Long> participantIds,
                                 HttpSession session, RedirectAttributes redirectAttributes) {
         User user = (User) session.getAttribute("user");
@@ -61,17 +68,108 @@ public class ExpenseController {
 
         LocalDate date = LocalDate.parse(expenseDate);
 
-        Expense expense;
-        if (participantIds != null && !participantIds.isEmpty()) {
-            expense = expenseService.createExpenseWithCustomSplit(groupId, description, amount, paidByUserId, date, participantIds);
-        } else {
-            expense = expenseService.createExpenseWithEqualSplit(groupId, description, amount, paidByUserId, date);
+        try {
+            if (participantIds != null && !participantIds.isEmpty()) {
+                expenseService.createExpenseWithCustomSplit(groupId, description, amount, currency, paidByUserId, date,
+                        participantIds);
+            } else {
+                expenseService.createExpenseWithEqualSplit(groupId, description, amount, currency, paidByUserId, date);
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to add expense: " + e.getMessage());
+            return "redirect:/groups/" + groupId;
         }
 
         redirectAttributes.addFlashAttribute("success", "Expense added successfully!");
         return "redirect:/groups/" + groupId;
     }
 
+    @GetMapping("/{id}/edit")
+    public String editExpensePage(@PathVariable Long id, HttpSession session, Model model) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return "redirect:/login";
+        }
+
+        Optional<Expense> expenseOpt = expenseService.findById(id);
+        if (!expenseOpt.isPresent()) {
+            return "redirect:/dashboard";
+        }
+
+        Expense expense = expenseOpt.get();
+        Long groupId = expense.getGroup().getId();
+        if (!groupService.isMember(groupId, user.getId())) {
+            return "redirect:/dashboard";
+        }
+
+        List<Long> participantIds = expenseService.getExpenseSplits(id).stream()
+                .map(ExpenseSplit::getUserId)
+                .collect(Collectors.toList());
+
+        model.addAttribute("user", user);
+        model.addAttribute("group", expense.getGroup());
+        model.addAttribute("expense", expense);
+        model.addAttribute("members", groupService.getGroupMembers(groupId));
+        model.addAttribute("participantIds", participantIds);
+        model.addAttribute("currencies", exchangeRateService.current().getCurrencies());
+        return "edit-expense";
+    }
+
+    @PostMapping("/{id}/edit")
+    public String editExpense(@PathVariable Long id, @RequestParam String description,
+                              @RequestParam BigDecimal amount, @RequestParam(required = false) String currency,
+                              @RequestParam String expenseDate, @RequestParam Long paidByUserId,
+                              @RequestParam(required = false) List<Long> participantIds,
+                              HttpSession session, RedirectAttributes redirectAttributes) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return "redirect:/login";
+        }
+
+        Optional<Expense> expenseOpt = expenseService.findById(id);
+        if (!expenseOpt.isPresent()) {
+            return "redirect:/dashboard";
+        }
+        Long groupId = expenseOpt.get().getGroup().getId();
+        if (!groupService.isMember(groupId, user.getId())) {
+            return "redirect:/dashboard";
+        }
+
+        try {
+            expenseService.updateExpense(id, description, amount, currency, paidByUserId,
+                    LocalDate.parse(expenseDate), participantIds, user.getId());
+            redirectAttributes.addFlashAttribute("success", "Expense updated successfully!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to update expense: " + e.getMessage());
+        }
+        return "redirect:/groups/" + groupId;
+    }
+
+    @PostMapping("/{id}/delete")
+    public String deleteExpense(@PathVariable Long id, HttpSession session, RedirectAttributes redirectAttributes) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return "redirect:/login";
+        }
+
+        Optional<Expense> expenseOpt = expenseService.findById(id);
+        if (!expenseOpt.isPresent()) {
+            return "redirect:/dashboard";
+        }
+        Long groupId = expenseOpt.get().getGroup().getId();
+        if (!groupService.isMember(groupId, user.getId())) {
+            return "redirect:/dashboard";
+        }
+
+        try {
+            expenseService.deleteExpense(id, user.getId());
+            redirectAttributes.addFlashAttribute("success", "Expense deleted successfully!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to delete expense: " + e.getMessage());
+        }
+        return "redirect:/groups/" + groupId;
+    }
+
     @GetMapping("/{id}")
     public String viewExpense(@PathVariable Long id, HttpSession session, Model model) {
         User user = (User) session.getAttribute("user");
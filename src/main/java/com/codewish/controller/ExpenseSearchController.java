@@ -0,0 +1,40 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.ExpenseSearchService;
+import com.codewish.service.GroupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/expenses")
+public class ExpenseSearchController {
+
+    private static final int MAX_LIMIT = 100;
+
+    @Autowired
+    private ExpenseSearchService expenseSearchService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @GetMapping("/search")
+    public ResponseEntity<List<ExpenseSearchService.SearchHit>> search(@PathVariable Long groupId,
+                                                                       @RequestParam("q") String query,
+                                                                       @RequestParam(defaultValue = "20") int limit,
+                                                                       HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(expenseSearchService.search(groupId, query, Math.min(limit, MAX_LIMIT)));
+    }
+}
@@ -8,14 +8,19 @@ import com.codewish.service.GroupService;
 import com.codewish.service.ExpenseService;
 import com.codewish.service.UserService;
 import com.codewish.service.BalanceService;
+import com.codewish.service.ExchangeRateService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import jakarta.servlet.http.HttpSession;
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -35,23 +40,38 @@ public class GroupController {
     @Autowired
     private BalanceService balanceService;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Value("${codewish.currency.default-base-currency:INR}")
+    private String defaultBaseCurrency;
+
     @GetMapping("/create")
-    public String createGroupPage(HttpSession session) {
+    public String createGroupPage(HttpSession session, Model model) {
         if (session.getAttribute("user") == null) {
             return "redirect:/login";
         }
+        model.addAttribute("currencies", exchangeRateService.current().getCurrencies());
+        model.addAttribute("defaultBaseCurrency", defaultBaseCurrency);
         return "create-group";
     }
 
     @PostMapping("/create")
     public String createGroup(@RequestParam String name, @RequestParam String description,
+                              @RequestParam(required = false) String baseCurrency,
                               HttpSession session, RedirectAttributes redirectAttributes) {
         User user = (User) session.getAttribute("user");
         if (user == null) {
             return "redirect:/login";
         }
 
-        Group group = groupService.createGroup(name, description, user.getId());
+        Group group;
+        try {
+            group = groupService.createGroup(name, description, user.getId(), baseCurrency);
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to create group: " + e.getMessage());
+            return "redirect:/groups/create";
+        }
         redirectAttributes.addFlashAttribute("success", "Group created successfully!");
         return "redirect:/groups/" + group.getId();
     }
@@ -133,6 +153,33 @@ public class GroupController {
         return "redirect:/groups/" + groupId + "/settlements";
     }
 
+    @PostMapping("/{groupId}/settle-all")
+    public String settleAll(@PathVariable Long groupId, HttpSession session, RedirectAttributes redirectAttributes) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return "redirect:/login";
+        }
+
+        Optional<Group> groupOpt = groupService.findById(groupId);
+        if (!groupOpt.isPresent()) {
+            return "redirect:/dashboard";
+        }
+        if (!groupOpt.get().getCreatedBy().equals(user.getId())) {
+            redirectAttributes.addFlashAttribute("error", "Only the group admin can settle all balances");
+            return "redirect:/groups/" + groupId + "/settlements";
+        }
+
+        try {
+            ExpenseService.SettleAllResult result = expenseService.settleAll(groupId);
+            redirectAttributes.addFlashAttribute("success",
+                    "Recorded " + result.getTransfers().size() + " settlement(s). Everyone is settled up!");
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to settle balances: " + e.getMessage());
+        }
+
+        return "redirect:/groups/" + groupId + "/settlements";
+    }
+
     @PostMapping("/{id}/add-member")
     public String addMember(@PathVariable Long id, @RequestParam String username,
                             HttpSession session, RedirectAttributes redirectAttributes) {
@@ -156,4 +203,42 @@ public class GroupController {
 
         return "redirect:/groups/" + id;
     }
+
+    @PostMapping("/{id}/add-members")
+    public String addMembers(@PathVariable Long id, @RequestParam String usernames,
+                             HttpSession session, RedirectAttributes redirectAttributes) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return "redirect:/login";
+        }
+        if (!groupService.isMember(id, user.getId())) {
+            return "redirect:/dashboard";
+        }
+
+        try {
+            List<GroupService.MemberAddResult> results =
+                    groupService.addUsersToGroup(id, Arrays.asList(usernames.split("[,\\s]+")));
+            Map<GroupService.MemberAddStatus, List<String>> byStatus = results.stream()
+                    .collect(Collectors.groupingBy(GroupService.MemberAddResult::getStatus,
+                            Collectors.mapping(GroupService.MemberAddResult::getUsername, Collectors.toList())));
+
+            List<String> added = byStatus.getOrDefault(GroupService.MemberAddStatus.ADDED, List.of());
+            redirectAttributes.addFlashAttribute("success", added.size() + " member(s) added.");
+
+            List<String> problems = new ArrayList<>();
+            if (byStatus.containsKey(GroupService.MemberAddStatus.NOT_FOUND)) {
+                problems.add("Not found: " + String.join(", ", byStatus.get(GroupService.MemberAddStatus.NOT_FOUND)));
+            }
+            if (byStatus.containsKey(GroupService.MemberAddStatus.ALREADY_MEMBER)) {
+                problems.add("Already in group: " + String.join(", ", byStatus.get(GroupService.MemberAddStatus.ALREADY_MEMBER)));
+            }
+            if (!problems.isEmpty()) {
+                redirectAttributes.addFlashAttribute("error", String.join(". ", problems));
+            }
+        } catch (Exception e) {
+            redirectAttributes.addFlashAttribute("error", "Failed to add members: " + e.getMessage());
+        }
+
+        return "redirect:/groups/" + id;
+    }
 }
\ No newline at end of file
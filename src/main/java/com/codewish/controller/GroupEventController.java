@@ -0,0 +1,37 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.GroupEventBroadcaster;
+import com.codewish.service.GroupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import jakarta.servlet.http.HttpSession;
+
+@RestController
+public class GroupEventController {
+
+    @Autowired
+    private GroupEventBroadcaster groupEventBroadcaster;
+
+    @Autowired
+    private GroupService groupService;
+
+    @GetMapping(value = "/groups/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamGroupEvents(@PathVariable Long id, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(id, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        return ResponseEntity.ok(groupEventBroadcaster.subscribe(id));
+    }
+}
@@ -0,0 +1,81 @@
+package com.codewish.controller;
+
+import com.codewish.model.User;
+import com.codewish.service.GroupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/groups")
+public class GroupMemberApiController {
+
+    @Autowired
+    private GroupService groupService;
+
+    // Creates a group and adds its members in one request
+    @PostMapping
+    public ResponseEntity<?> createGroup(@RequestBody GroupBootstrapRequest request, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (request.getName() == null || request.getName().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "Group name is required"));
+        }
+
+        try {
+            GroupService.GroupBootstrapResult result = groupService.createGroupWithMembers(request.getName(),
+                    request.getDescription(), user.getId(), request.getBaseCurrency(), request.getUsernames());
+            return ResponseEntity.status(HttpStatus.CREATED).body(result);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @PostMapping("/{groupId}/members/bulk")
+    public ResponseEntity<?> addMembers(@PathVariable Long groupId, @RequestBody BulkMemberRequest request,
+                                        HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(groupService.addUsersToGroup(groupId, request.getUsernames()));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    public static class BulkMemberRequest {
+        private List<String> usernames = new ArrayList<>();
+
+        public List<String> getUsernames() { return usernames; }
+        public void setUsernames(List<String> usernames) { this.usernames = usernames != null ? usernames : new ArrayList<>(); }
+    }
+
+    public static class GroupBootstrapRequest {
+        private String name;
+        private String description;
+        private String baseCurrency;
+        private List<String> usernames = new ArrayList<>();
+
+        public String getName() { return name; }
+        public void setName(String name) { this.name = name; }
+        public String getDescription() { return description; }
+        public void setDescription(String description) { this.description = description; }
+        public String getBaseCurrency() { return baseCurrency; }
+        public void setBaseCurrency(String baseCurrency) { this.baseCurrency = baseCurrency; }
+        public List<String> getUsernames() { return usernames; }
+        public void setUsernames(List<String> usernames) { this.usernames = usernames != null ? usernames : new ArrayList<>(); }
+    }
+}
@@ -0,0 +1,82 @@
+package com.codewish.controller;
+
+import com.codewish.model.RecurringExpense;
+import com.codewish.model.User;
+import com.codewish.service.GroupService;
+import com.codewish.service.RecurringExpenseService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/recurring-expenses")
+public class RecurringExpenseController {
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    @GetMapping
+    public ResponseEntity<List<RecurringExpense>> list(@PathVariable Long groupId, HttpSession session) {
+        HttpStatus denied = checkAccess(groupId, session);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        return ResponseEntity.ok(recurringExpenseService.getGroupRecurringExpenses(groupId));
+    }
+
+    @PostMapping
+    public ResponseEntity<?> create(@PathVariable Long groupId, @RequestParam String description,
+                                    @RequestParam BigDecimal amount, @RequestParam Long paidByUserId,
+                                    @RequestParam RecurringExpense.Frequency frequency,
+                                    @RequestParam(defaultValue = "1") int intervalCount,
+                                    @RequestParam String startDate,
+                                    @RequestParam(required = false) String endDate,
+                                    @RequestParam(required = false) List<Long> participantIds,
+                                    HttpSession session) {
+        HttpStatus denied = checkAccess(groupId, session);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+
+        User user = (User) session.getAttribute("user");
+        try {
+            RecurringExpense recurringExpense = recurringExpenseService.createRecurringExpense(groupId, description,
+                    amount, paidByUserId, frequency, intervalCount, LocalDate.parse(startDate),
+                    endDate != null ? LocalDate.parse(endDate) : null, participantIds, user.getId());
+            return ResponseEntity.status(HttpStatus.CREATED).body(recurringExpense);
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deactivate(@PathVariable Long groupId, @PathVariable Long id, HttpSession session) {
+        HttpStatus denied = checkAccess(groupId, session);
+        if (denied != null) {
+            return ResponseEntity.status(denied).build();
+        }
+        return recurringExpenseService.deactivate(groupId, id)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    private HttpStatus checkAccess(Long groupId, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return HttpStatus.UNAUTHORIZED;
+        }
+        if (!groupService.isMember(groupId, user.getId())) {
+            return HttpStatus.FORBIDDEN;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,47 @@
+package com.codewish.controller;
+
+import com.codewish.model.Group;
+import com.codewish.model.User;
+import com.codewish.service.ExpenseService;
+import com.codewish.service.GroupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import jakarta.servlet.http.HttpSession;
+import java.util.Map;
+import java.util.Optional;
+
+@RestController
+@RequestMapping("/api/groups/{groupId}/settle-all")
+public class SettlementController {
+
+    @Autowired
+    private ExpenseService expenseService;
+
+    @Autowired
+    private GroupService groupService;
+
+    // Records every suggested transfer and returns them with the resulting balances
+    @PostMapping
+    public ResponseEntity<?> settleAll(@PathVariable Long groupId, HttpSession session) {
+        User user = (User) session.getAttribute("user");
+        if (user == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+
+        Optional<Group> groupOpt = groupService.findById(groupId);
+        if (!groupOpt.isPresent()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!groupOpt.get().getCreatedBy().equals(user.getId())) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+
+        try {
+            return ResponseEntity.ok(expenseService.settleAll(groupId));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+}
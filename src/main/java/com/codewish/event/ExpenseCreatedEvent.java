@@ -0,0 +1,24 @@
+package com.codewish.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+// Published inside the creating transaction; listeners should react after commit
+@Getter
+@AllArgsConstructor
+public class ExpenseCreatedEvent {
+    private final Long groupId;
+    private final Long expenseId;
+    private final String description;
+    private final BigDecimal amount;
+    // Currency of amount, already resolved to the group's base currency when the expense has none
+    private final String currency;
+    private final Long paidByUserId;
+    private final LocalDate expenseDate;
+    private final boolean settlement;
+    // Amount owed per participant
+    private final Map<Long, BigDecimal> splits;
+}
@@ -0,0 +1,13 @@
+package com.codewish.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class ExpenseDeletedEvent {
+    private final Long groupId;
+    private final Long expenseId;
+    private final Set<Long> affectedUserIds;
+}
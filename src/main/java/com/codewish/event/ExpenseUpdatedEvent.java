@@ -0,0 +1,22 @@
+package com.codewish.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+@Getter
+@AllArgsConstructor
+public class ExpenseUpdatedEvent {
+    private final Long groupId;
+    private final Long expenseId;
+    private final String description;
+    private final BigDecimal amount;
+    // Currency of amount, already resolved to the group's base currency when the expense has none
+    private final String currency;
+    private final Long paidByUserId;
+    private final LocalDate expenseDate;
+    // Users whose balance may have changed (old and new payer and participants)
+    private final Set<Long> affectedUserIds;
+}
@@ -0,0 +1,11 @@
+package com.codewish.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class MemberAddedEvent {
+    private final Long groupId;
+    private final Long userId;
+}
@@ -15,6 +15,10 @@ import java.util.Set;
 @NoArgsConstructor
 @AllArgsConstructor
 public class Expense {
+    public static final String SETTLEMENT_DESCRIPTION = "Settlement";
+    // Shown on the rows that carry a member's balance forward after older history has been archived
+    public static final String OPENING_BALANCE_DESCRIPTION = "Opening balance";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -29,6 +33,14 @@ public class Expense {
     @Column(nullable = false, precision = 10, scale = 2)
     private BigDecimal amount;
 
+    // Null means the group's base currency
+    @Column(length = 3)
+    private String currency;
+
+    // Rate into the base currency fixed when the expense was recorded, used by balances and rollups; null means 1
+    @Column(name = "fx_rate", precision = 20, scale = 10)
+    private BigDecimal fxRate;
+
     @Column(name = "paid_by_user_id", nullable = false)
     private Long paidByUserId;
 
@@ -38,6 +50,10 @@ public class Expense {
     @Column(name = "created_date")
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // Set only on rows written by history compaction; users cannot create, edit or delete them
+    @Column(name = "opening_balance", nullable = false, updatable = false)
+    private boolean openingBalance;
+
     @OneToMany(mappedBy = "expense", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private Set<ExpenseSplit> splits;
 
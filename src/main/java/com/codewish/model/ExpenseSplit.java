@@ -21,15 +21,30 @@ public class ExpenseSplit {
     @JoinColumn(name = "expense_id", nullable = false)
     private Expense expense;
 
+    // Copied from the expense so balance sums do not need to join expenses
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
     @Column(name = "user_id", nullable = false)
     private Long userId;
 
     @Column(name = "amount_owed", nullable = false, precision = 10, scale = 2)
     private BigDecimal amountOwed;
 
+    // Copied from the expense so balances can be summed per currency without a join
+    @Column(length = 3)
+    private String currency;
+
+    // Copied from the expense: balances convert with the rate the expense was recorded at (null = 1)
+    @Column(name = "fx_rate", precision = 20, scale = 10)
+    private BigDecimal fxRate;
+
     public ExpenseSplit(Expense expense, Long userId, BigDecimal amountOwed) {
         this.expense = expense;
+        this.groupId = expense.getGroup().getId();
         this.userId = userId;
         this.amountOwed = amountOwed;
+        this.currency = expense.getCurrency();
+        this.fxRate = expense.getFxRate();
     }
 }
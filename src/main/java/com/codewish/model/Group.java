@@ -29,6 +29,13 @@ public class Group {
     @Column(name = "created_date")
     private LocalDateTime createdDate = LocalDateTime.now();
 
+    // Bumped by CacheInvalidationService on every change to the group's data; never written through JPA
+    @Column(name = "version", insertable = false, updatable = false)
+    private Long version;
+
+    @Column(name = "base_currency", nullable = false, length = 3, updatable = false)
+    private String baseCurrency = "INR";
+
     @OneToMany(mappedBy = "group", cascade = CascadeType.ALL)
     private Set<GroupMember> members;
 
@@ -0,0 +1,87 @@
+package com.codewish.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "recurring_expenses")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurringExpense {
+
+    public enum Frequency {
+        DAILY,
+        WEEKLY,
+        MONTHLY
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "group_id", nullable = false)
+    private Long groupId;
+
+    @Column(nullable = false)
+    private String description;
+
+    @Column(nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "paid_by_user_id", nullable = false)
+    private Long paidByUserId;
+
+    // Null means "all members at the time each occurrence is generated"
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(name = "participant_ids", columnDefinition = "BIGINT[]")
+    private Long[] participantIds;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Frequency frequency;
+
+    @Column(name = "interval_count", nullable = false)
+    private int intervalCount = 1;
+
+    @Column(name = "start_date", nullable = false)
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "next_run_date", nullable = false)
+    private LocalDate nextRunDate;
+
+    @Column(name = "occurrence_count", nullable = false)
+    private int occurrenceCount;
+
+    @Column(nullable = false)
+    private boolean active = true;
+
+    @Column(name = "created_by", nullable = false)
+    private Long createdBy;
+
+    @Column(name = "created_date")
+    private LocalDateTime createdDate = LocalDateTime.now();
+
+    // Occurrences are derived from the start date so monthly rules keep their day of month
+    public static LocalDate occurrenceDate(LocalDate startDate, Frequency frequency, int intervalCount, int occurrence) {
+        long steps = (long) intervalCount * occurrence;
+        switch (frequency) {
+            case DAILY:
+                return startDate.plusDays(steps);
+            case WEEKLY:
+                return startDate.plusWeeks(steps);
+            default:
+                return startDate.plusMonths(steps);
+        }
+    }
+}
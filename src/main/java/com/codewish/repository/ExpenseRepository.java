@@ -6,12 +6,22 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface ExpenseRepository extends JpaRepository<Expense, Long> {
     List<Expense> findByGroupId(Long groupId);
     List<Expense> findByPaidByUserId(Long paidByUserId);
 
-    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId ORDER BY e.expenseDate DESC")
+    // Opening-balance rows left by history compaction only carry balances; they are not shown as expenses
+    @Query("SELECT e FROM Expense e WHERE e.group.id = :groupId AND e.openingBalance = false " +
+           "ORDER BY e.expenseDate DESC")
     List<Expense> findByGroupIdOrderByDateDesc(@Param("groupId") Long groupId);
+
+    @Query("SELECT e.group.id FROM Expense e WHERE e.id = :id")
+    Optional<Long> findGroupIdById(@Param("id") Long id);
+
+    @Query("SELECT e.id, e.description, e.amount, COALESCE(e.currency, e.group.baseCurrency), e.expenseDate " +
+           "FROM Expense e WHERE e.group.id = :groupId AND e.openingBalance = false")
+    List<Object[]> findSearchableByGroupId(@Param("groupId") Long groupId);
 }
@@ -5,7 +5,6 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
-import java.math.BigDecimal;
 import java.util.List;
 
 @Repository
@@ -13,12 +12,26 @@ public interface ExpenseSplitRepository extends JpaRepository<ExpenseSplit, Long
     List<ExpenseSplit> findByExpenseId(Long expenseId);
     List<ExpenseSplit> findByUserId(Long userId);
 
-    @Query("SELECT es FROM ExpenseSplit es WHERE es.expense.group.id = :groupId AND es.userId = :userId")
+    @Query("SELECT es FROM ExpenseSplit es WHERE es.groupId = :groupId AND es.userId = :userId")
     List<ExpenseSplit> findByGroupIdAndUserId(@Param("groupId") Long groupId, @Param("userId") Long userId);
 
-    @Query("SELECT SUM(es.amountOwed) FROM ExpenseSplit es WHERE es.expense.group.id = :groupId AND es.userId = :userId")
-    BigDecimal getTotalOwedByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+    // Sums are per stored rate (null = group base currency) so BalanceService converts once per rate, not per row,
+    // and a rate refresh never moves existing balances.
+    // Served by idx_expense_splits_group_user (group_id, user_id) INCLUDE (fx_rate, amount_owed)
+    @Query("SELECT es.fxRate, SUM(es.amountOwed) FROM ExpenseSplit es " +
+           "WHERE es.groupId = :groupId AND es.userId = :userId GROUP BY es.fxRate")
+    List<Object[]> getTotalOwedByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
 
-    @Query("SELECT SUM(e.amount) FROM Expense e WHERE e.group.id = :groupId AND e.paidByUserId = :userId")
-    BigDecimal getTotalPaidByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+    // Served by idx_expenses_group_payer (group_id, paid_by_user_id) INCLUDE (fx_rate, amount)
+    @Query("SELECT e.fxRate, SUM(e.amount) FROM Expense e " +
+           "WHERE e.group.id = :groupId AND e.paidByUserId = :userId GROUP BY e.fxRate")
+    List<Object[]> getTotalPaidByUserInGroup(@Param("groupId") Long groupId, @Param("userId") Long userId);
+
+    @Query("SELECT es.userId, es.fxRate, SUM(es.amountOwed) FROM ExpenseSplit es " +
+           "WHERE es.groupId = :groupId GROUP BY es.userId, es.fxRate")
+    List<Object[]> getTotalOwedPerUserInGroup(@Param("groupId") Long groupId);
+
+    @Query("SELECT e.paidByUserId, e.fxRate, SUM(e.amount) FROM Expense e " +
+           "WHERE e.group.id = :groupId GROUP BY e.paidByUserId, e.fxRate")
+    List<Object[]> getTotalPaidPerUserInGroup(@Param("groupId") Long groupId);
 }
@@ -2,7 +2,10 @@ package com.codewish.repository;
 
 import com.codewish.model.GroupMember;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,4 +16,7 @@ public interface GroupMemberRepository extends JpaRepository<GroupMember, Long>
     Optional<GroupMember> findByUserIdAndGroupId(Long userId, Long groupId);
     boolean existsByUserIdAndGroupId(Long userId, Long groupId);
     void deleteByUserIdAndGroupId(Long userId, Long groupId);
+
+    @Query("SELECT gm.user.id FROM GroupMember gm WHERE gm.group.id = :groupId AND gm.user.id IN :userIds")
+    List<Long> findMemberUserIds(@Param("groupId") Long groupId, @Param("userIds") Collection<Long> userIds);
 }
\ No newline at end of file
@@ -1,11 +1,14 @@
 package com.codewish.repository;
 
 import com.codewish.model.Group;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface GroupRepository extends JpaRepository<Group, Long> {
@@ -13,4 +16,12 @@ public interface GroupRepository extends JpaRepository<Group, Long> {
 
     @Query("SELECT g FROM Group g JOIN g.members gm WHERE gm.user.id = :userId")
     List<Group> findGroupsByUserId(@Param("userId") Long userId);
+
+    // Serializes history rewrites (edits, deletes, compaction) within a group
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT g FROM Group g WHERE g.id = :id")
+    Optional<Group> findByIdForUpdate(@Param("id") Long id);
+
+    @Query("SELECT g.baseCurrency FROM Group g WHERE g.id = :id")
+    Optional<String> findBaseCurrencyById(@Param("id") Long id);
 }
@@ -0,0 +1,11 @@
+package com.codewish.repository;
+
+import com.codewish.model.RecurringExpense;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import java.util.List;
+
+@Repository
+public interface RecurringExpenseRepository extends JpaRepository<RecurringExpense, Long> {
+    List<RecurringExpense> findByGroupIdAndActiveTrueOrderByNextRunDate(Long groupId);
+}
@@ -0,0 +1,194 @@
+package com.codewish.service;
+
+import com.codewish.model.Expense;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+// Merges expenses, settlements and member joins into one newest-first stream, paged by keyset cursor.
+// Opening-balance rows from history compaction are bookkeeping, not activity, and are left out
+@Service
+public class ActivityFeedService {
+
+    // Tie-break between sources at the same timestamp; higher rank comes first
+    static final int MEMBER_RANK = 0;
+    static final int EXPENSE_RANK = 1;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    // Each branch is a bounded range scan on its (group_id, ts DESC, id DESC) index; the outer merge sees at most 2 * (limit + 1) rows
+    @Transactional(readOnly = true)
+    public ActivityPage getActivity(Long groupId, String cursorToken, int limit) {
+        Cursor cursor = cursorToken != null && !cursorToken.isBlank() ? Cursor.decode(cursorToken) : null;
+        int fetch = limit + 1;
+
+        List<Object> args = new ArrayList<>();
+        String expensePredicate = branchPredicate("e.created_date", "e.id", EXPENSE_RANK, cursor, args);
+        args.add(fetch);
+        List<Object> memberArgs = new ArrayList<>();
+        String memberPredicate = branchPredicate("gm.joined_date", "gm.id", MEMBER_RANK, cursor, memberArgs);
+        memberArgs.add(fetch);
+
+        String sql =
+                "SELECT f.kind_rank, f.id, f.ts, f.user_id, u.username, f.description, f.amount, f.currency FROM (" +
+                "(SELECT " + EXPENSE_RANK + " AS kind_rank, e.id, e.created_date AS ts, e.paid_by_user_id AS user_id, " +
+                "e.description, e.amount, e.currency FROM expenses e " +
+                "WHERE e.group_id = ? AND e.created_date IS NOT NULL" +
+                " AND NOT e.opening_balance" + expensePredicate +
+                " ORDER BY e.created_date DESC, e.id DESC LIMIT ?) " +
+                "UNION ALL " +
+                "(SELECT " + MEMBER_RANK + ", gm.id, gm.joined_date, gm.user_id, " +
+                "CAST(NULL AS VARCHAR(255)), CAST(NULL AS DECIMAL(10,2)), CAST(NULL AS CHAR(3)) FROM group_members gm " +
+                "WHERE gm.group_id = ? AND gm.joined_date IS NOT NULL" + memberPredicate +
+                " ORDER BY gm.joined_date DESC, gm.id DESC LIMIT ?)" +
+                ") f JOIN users u ON u.id = f.user_id " +
+                "ORDER BY f.ts DESC, f.kind_rank DESC, f.id DESC LIMIT ?";
+
+        List<Object> allArgs = new ArrayList<>();
+        allArgs.add(groupId);
+        allArgs.addAll(args);
+        allArgs.add(groupId);
+        allArgs.addAll(memberArgs);
+        allArgs.add(fetch);
+
+        // Expenses without a currency are in the group's base currency
+        String baseCurrency = jdbcTemplate.queryForObject(
+                "SELECT base_currency FROM groups WHERE id = ?", String.class, groupId);
+        List<ActivityItem> items = jdbcTemplate.query(sql, (rs, rowNum) -> {
+            int rank = rs.getInt("kind_rank");
+            String description = rs.getString("description");
+            String currency = rank == EXPENSE_RANK && rs.getString("currency") == null
+                    ? baseCurrency : rs.getString("currency");
+            return new ActivityItem(activityType(rank, description), rank, rs.getLong("id"),
+                    rs.getTimestamp("ts").toLocalDateTime(), rs.getLong("user_id"), rs.getString("username"),
+                    description, rs.getBigDecimal("amount"), currency);
+        }, allArgs.toArray());
+
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = new ArrayList<>(items.subList(0, limit));
+            ActivityItem last = items.get(items.size() - 1);
+            nextCursor = new Cursor(last.getTimestamp(), last.rank, last.getId()).encode();
+        }
+        return new ActivityPage(items, nextCursor);
+    }
+
+    // Rows strictly after the cursor in (ts DESC, rank DESC, id DESC) order, specialised per branch so the index can be used
+    private String branchPredicate(String tsColumn, String idColumn, int rank, Cursor cursor, List<Object> args) {
+        if (cursor == null) {
+            return "";
+        }
+        Timestamp ts = Timestamp.valueOf(cursor.timestamp);
+        if (rank < cursor.rank) {
+            args.add(ts);
+            return " AND " + tsColumn + " <= ?";
+        }
+        if (rank > cursor.rank) {
+            args.add(ts);
+            return " AND " + tsColumn + " < ?";
+        }
+        args.add(ts);
+        args.add(cursor.id);
+        return " AND (" + tsColumn + ", " + idColumn + ") < (?, ?)";
+    }
+
+    private String activityType(int rank, String description) {
+        if (rank == MEMBER_RANK) {
+            return "MEMBER_JOINED";
+        }
+        if (Expense.SETTLEMENT_DESCRIPTION.equals(description)) {
+            return "SETTLEMENT";
+        }
+        return "EXPENSE";
+    }
+
+    // Opaque position in the feed: "timestamp|rank|id", base64url encoded
+    static class Cursor {
+        final LocalDateTime timestamp;
+        final int rank;
+        final long id;
+
+        Cursor(LocalDateTime timestamp, int rank, long id) {
+            this.timestamp = timestamp;
+            this.rank = rank;
+            this.id = id;
+        }
+
+        String encode() {
+            String raw = timestamp + "|" + rank + "|" + id;
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                String[] parts = raw.split("\\|");
+                if (parts.length != 3) {
+                    throw new IllegalArgumentException("wrong number of parts");
+                }
+                return new Cursor(LocalDateTime.parse(parts[0]), Integer.parseInt(parts[1]), Long.parseLong(parts[2]));
+            } catch (RuntimeException e) {
+                throw new RuntimeException("Invalid activity cursor");
+            }
+        }
+    }
+
+    // Inner class for one feed entry
+    public static class ActivityItem {
+        private String type;
+        private int rank;
+        private Long id;
+        private LocalDateTime timestamp;
+        private Long userId;
+        private String username;
+        private String description;
+        private BigDecimal amount;
+        private String currency;
+
+        public ActivityItem(String type, int rank, Long id, LocalDateTime timestamp, Long userId, String username,
+                            String description, BigDecimal amount, String currency) {
+            this.type = type;
+            this.rank = rank;
+            this.id = id;
+            this.timestamp = timestamp;
+            this.userId = userId;
+            this.username = username;
+            this.description = description;
+            this.amount = amount;
+            this.currency = currency;
+        }
+
+        // Getters
+        public String getType() { return type; }
+        public Long getId() { return id; }
+        public LocalDateTime getTimestamp() { return timestamp; }
+        public Long getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public String getDescription() { return description; }
+        public BigDecimal getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+    }
+
+    public static class ActivityPage {
+        private List<ActivityItem> items;
+        private String nextCursor;
+
+        public ActivityPage(List<ActivityItem> items, String nextCursor) {
+            this.items = items;
+            this.nextCursor = nextCursor;
+        }
+
+        // Getters
+        public List<ActivityItem> getItems() { return items; }
+        public String getNextCursor() { return nextCursor; }
+    }
+}
@@ -4,11 +4,14 @@ import com.codewish.model.GroupMember;
 import com.codewish.repository.ExpenseSplitRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.util.*;
 import java.util.Map;
 
 @Service
+@Transactional(readOnly = true)
 public class BalanceService {
 
     @Autowired
@@ -18,69 +21,98 @@ public class BalanceService {
     private GroupService groupService;
 
     public BigDecimal getUserBalanceInGroup(Long groupId, Long userId) {
-        // Amount user owes
-        BigDecimal totalOwed = expenseSplitRepository.getTotalOwedByUserInGroup(groupId, userId);
-        if (totalOwed == null) totalOwed = BigDecimal.ZERO;
-
-        // Amount user paid
-        BigDecimal totalPaid = expenseSplitRepository.getTotalPaidByUserInGroup(groupId, userId);
-        if (totalPaid == null) totalPaid = BigDecimal.ZERO;
-
         // Net balance: negative means user owes money, positive means user should receive money
-        return totalPaid.subtract(totalOwed);
+        BigDecimal balance = BigDecimal.ZERO;
+        for (Object[] row : expenseSplitRepository.getTotalPaidByUserInGroup(groupId, userId)) {
+            balance = balance.add(toBase((BigDecimal) row[0], (BigDecimal) row[1]));
+        }
+        for (Object[] row : expenseSplitRepository.getTotalOwedByUserInGroup(groupId, userId)) {
+            balance = balance.subtract(toBase((BigDecimal) row[0], (BigDecimal) row[1]));
+        }
+        return balance.setScale(2, RoundingMode.HALF_UP);
     }
 
     public Map<Long, BigDecimal> getAllBalancesInGroup(Long groupId, List<Long> userIds) {
+        Map<Long, BigDecimal> groupBalances = getGroupBalances(groupId);
         Map<Long, BigDecimal> balances = new HashMap<>();
         for (Long userId : userIds) {
-            balances.put(userId, getUserBalanceInGroup(groupId, userId));
+            balances.put(userId, groupBalances.getOrDefault(userId, BigDecimal.ZERO));
         }
         return balances;
     }
 
+    // Net balance of every user in the group, in the group's base currency, from two grouped aggregates
+    public Map<Long, BigDecimal> getGroupBalances(Long groupId) {
+        Map<Long, BigDecimal> balances = new HashMap<>();
+        for (Object[] row : expenseSplitRepository.getTotalPaidPerUserInGroup(groupId)) {
+            balances.merge((Long) row[0], toBase((BigDecimal) row[1], (BigDecimal) row[2]), BigDecimal::add);
+        }
+        for (Object[] row : expenseSplitRepository.getTotalOwedPerUserInGroup(groupId)) {
+            balances.merge((Long) row[0], toBase((BigDecimal) row[1], (BigDecimal) row[2]).negate(), BigDecimal::add);
+        }
+        balances.replaceAll((userId, balance) -> balance.setScale(2, RoundingMode.HALF_UP));
+        return balances;
+    }
+
     public List<Settlement> getGroupSettlements(Long groupId) {
-        List<GroupMember> members = groupService.getGroupMembers(groupId);
-        List<Settlement> settlements = new ArrayList<>();
+        return getGroupSettlements(groupId, getGroupBalances(groupId));
+    }
 
-        // Calculate settlements between each pair of users
-        for (int i = 0; i < members.size(); i++) {
-            for (int j = i + 1; j < members.size(); j++) {
-                GroupMember member1 = members.get(i);
-                GroupMember member2 = members.get(j);
-
-                BigDecimal balance1 = getUserBalanceInGroup(groupId, member1.getUser().getId());
-                BigDecimal balance2 = getUserBalanceInGroup(groupId, member2.getUser().getId());
-
-                // If one owes money and other should receive, create settlement
-                if (balance1.compareTo(BigDecimal.ZERO) < 0 && balance2.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal settlementAmount = balance1.negate().min(balance2);
-                    if (settlementAmount.compareTo(BigDecimal.ZERO) > 0) {
-                        settlements.add(new Settlement(
-                                member1.getUser().getId(),
-                                member1.getUser().getUsername(),
-                                member2.getUser().getId(),
-                                member2.getUser().getUsername(),
-                                settlementAmount
-                        ));
-                    }
-                } else if (balance2.compareTo(BigDecimal.ZERO) < 0 && balance1.compareTo(BigDecimal.ZERO) > 0) {
-                    BigDecimal settlementAmount = balance2.negate().min(balance1);
-                    if (settlementAmount.compareTo(BigDecimal.ZERO) > 0) {
-                        settlements.add(new Settlement(
-                                member2.getUser().getId(),
-                                member2.getUser().getUsername(),
-                                member1.getUser().getId(),
-                                member1.getUser().getUsername(),
-                                settlementAmount
-                        ));
-                    }
-                }
+    // Transfers between current members that settle the given balances
+    public List<Settlement> getGroupSettlements(Long groupId, Map<Long, BigDecimal> balances) {
+        Map<Long, String> usernames = new LinkedHashMap<>();
+        for (GroupMember member : groupService.getGroupMembers(groupId)) {
+            usernames.put(member.getUser().getId(), member.getUser().getUsername());
+        }
+        return computeTransfers(balances, usernames);
+    }
+
+    // Repeatedly pays the largest creditor from the largest debtor, so every balance reaches zero
+    // in at most n - 1 transfers; only users in usernames take part
+    static List<Settlement> computeTransfers(Map<Long, BigDecimal> balances, Map<Long, String> usernames) {
+        List<Map.Entry<Long, BigDecimal>> creditors = new ArrayList<>();
+        List<Map.Entry<Long, BigDecimal>> debtors = new ArrayList<>();
+        for (Long userId : usernames.keySet()) {
+            BigDecimal balance = balances.getOrDefault(userId, BigDecimal.ZERO);
+            if (balance.signum() > 0) {
+                creditors.add(new AbstractMap.SimpleEntry<>(userId, balance));
+            } else if (balance.signum() < 0) {
+                debtors.add(new AbstractMap.SimpleEntry<>(userId, balance.negate()));
             }
         }
+        Comparator<Map.Entry<Long, BigDecimal>> largestFirst = Map.Entry.<Long, BigDecimal>comparingByValue()
+                .reversed().thenComparing(Map.Entry.comparingByKey());
+        creditors.sort(largestFirst);
+        debtors.sort(largestFirst);
 
+        List<Settlement> settlements = new ArrayList<>();
+        int c = 0;
+        int d = 0;
+        while (c < creditors.size() && d < debtors.size()) {
+            Map.Entry<Long, BigDecimal> creditor = creditors.get(c);
+            Map.Entry<Long, BigDecimal> debtor = debtors.get(d);
+            BigDecimal amount = creditor.getValue().min(debtor.getValue());
+
+            settlements.add(new Settlement(debtor.getKey(), usernames.get(debtor.getKey()),
+                    creditor.getKey(), usernames.get(creditor.getKey()), amount));
+
+            creditor.setValue(creditor.getValue().subtract(amount));
+            debtor.setValue(debtor.getValue().subtract(amount));
+            if (creditor.getValue().signum() == 0) {
+                c++;
+            }
+            if (debtor.getValue().signum() == 0) {
+                d++;
+            }
+        }
         return settlements;
     }
 
+    // Sums are grouped by the rate each expense was recorded at, so refreshed rates never move old balances
+    private static BigDecimal toBase(BigDecimal fxRate, BigDecimal amount) {
+        return fxRate == null ? amount : amount.multiply(fxRate);
+    }
+
     // Inner class for Settlement data
     public static class Settlement {
         private Long fromUserId;
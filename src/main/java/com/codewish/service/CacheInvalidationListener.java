@@ -0,0 +1,147 @@
+package com.codewish.service;
+
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+// Holds a dedicated LISTEN connection (outside the pool) and applies other nodes' invalidations in coalesced batches
+@Component
+@ConditionalOnProperty(prefix = "codewish.cache.invalidation", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class CacheInvalidationListener {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationListener.class);
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${codewish.cache.invalidation.poll-ms:500}")
+    private int pollMs;
+
+    // A burst is collected for at most this long, then applied as one batch
+    @Value("${codewish.cache.invalidation.coalesce-ms:50}")
+    private int coalesceMs;
+
+    @Value("${codewish.cache.invalidation.keepalive-ms:30000}")
+    private long keepaliveMs;
+
+    @Value("${codewish.cache.invalidation.reconnect-backoff-ms:5000}")
+    private long reconnectBackoffMs;
+
+    private volatile boolean running = true;
+    private Thread thread;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        thread = new Thread(this::run, "cache-invalidation-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + cacheInvalidationService.getChannel());
+                }
+                // Anything committed while we were not listening is unknown, so start from empty caches
+                cacheInvalidationService.flushAll();
+                listen(connection);
+            } catch (SQLException e) {
+                if (running) {
+                    log.warn("Cache invalidation listener disconnected, reconnecting in {} ms", reconnectBackoffMs, e);
+                }
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(reconnectBackoffMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    private void listen(Connection connection) throws SQLException {
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        long lastActivity = System.currentTimeMillis();
+
+        while (running) {
+            PGNotification[] notifications = pgConnection.getNotifications(pollMs);
+            if (notifications == null || notifications.length == 0) {
+                // getNotifications does not notice a dead socket on its own
+                if (System.currentTimeMillis() - lastActivity > keepaliveMs) {
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute("SELECT 1");
+                    }
+                    lastActivity = System.currentTimeMillis();
+                }
+                continue;
+            }
+
+            Map<Long, Long> groupVersions = new HashMap<>();
+            Set<Long> expenseGroupIds = new HashSet<>();
+            Set<Long> userIds = new HashSet<>();
+            long deadline = System.currentTimeMillis() + coalesceMs;
+            while (notifications != null && notifications.length > 0) {
+                for (PGNotification notification : notifications) {
+                    collect(notification.getParameter(), groupVersions, expenseGroupIds, userIds);
+                }
+                long remaining = deadline - System.currentTimeMillis();
+                if (remaining <= 0) {
+                    break;
+                }
+                // A timeout of 0 would block until the next notification
+                notifications = pgConnection.getNotifications((int) Math.max(1, remaining));
+            }
+
+            if (!groupVersions.isEmpty() || !expenseGroupIds.isEmpty() || !userIds.isEmpty()) {
+                cacheInvalidationService.applyRemote(groupVersions, expenseGroupIds, userIds);
+            }
+            lastActivity = System.currentTimeMillis();
+        }
+    }
+
+    private void collect(String payload, Map<Long, Long> groupVersions, Set<Long> expenseGroupIds, Set<Long> userIds) {
+        try {
+            CacheInvalidationService.Invalidations invalidations = cacheInvalidationService.parse(payload);
+            if (invalidations != null) {
+                invalidations.groupVersions.forEach((groupId, version) -> groupVersions.merge(groupId, version, Math::max));
+                expenseGroupIds.addAll(invalidations.expenseGroupIds);
+                userIds.addAll(invalidations.userIds);
+            }
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed cache invalidation payload: {}", payload);
+        }
+    }
+}
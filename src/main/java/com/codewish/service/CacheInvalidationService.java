@@ -0,0 +1,271 @@
+package com.codewish.service;
+
+import com.codewish.event.ExpenseCreatedEvent;
+import com.codewish.event.ExpenseDeletedEvent;
+import com.codewish.event.ExpenseUpdatedEvent;
+import com.codewish.event.MemberAddedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Publishes cache invalidations to every node through Postgres NOTIFY and applies them to the local caches
+@Service
+public class CacheInvalidationService {
+
+    private static final Logger log = LoggerFactory.getLogger(CacheInvalidationService.class);
+
+    public static final String USERS_CACHE = "users";
+    public static final String GROUP_MEMBERS_CACHE = "groupMembers";
+
+    // NOTIFY payloads must stay below 8000 bytes
+    private static final int MAX_PAYLOAD_BYTES = 7500;
+
+    // Identifies this node so it can skip its own notifications; it has already evicted after commit
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // Highest groups.version seen per group, from local commits or from other nodes
+    private final Map<Long, Long> knownGroupVersions = new ConcurrentHashMap<>();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ExpenseSearchService expenseSearchService;
+
+    @Value("${codewish.cache.invalidation.channel:codewish_invalidation}")
+    private String channel;
+
+    @EventListener
+    public void onExpenseCreated(ExpenseCreatedEvent event) {
+        invalidateGroupExpenses(event.getGroupId());
+    }
+
+    @EventListener
+    public void onExpenseUpdated(ExpenseUpdatedEvent event) {
+        invalidateGroupExpenses(event.getGroupId());
+    }
+
+    @EventListener
+    public void onExpenseDeleted(ExpenseDeletedEvent event) {
+        invalidateGroupExpenses(event.getGroupId());
+    }
+
+    @EventListener
+    public void onMemberAdded(MemberAddedEvent event) {
+        invalidateGroupMembers(event.getGroupId());
+    }
+
+    // Membership changed: bumps groups.version so stale member snapshots anywhere are refused.
+    // Queued on the current transaction; the version bump and NOTIFY commit (or roll back) with it
+    public void invalidateGroupMembers(Long groupId) {
+        PendingInvalidations pending = currentPending();
+        if (pending == null) {
+            transactionTemplate.executeWithoutResult(status -> invalidateGroupMembers(groupId));
+            return;
+        }
+        pending.groupIds.add(groupId);
+    }
+
+    // Expenses changed: other nodes only drop their search index for the group. No row is written, so
+    // concurrent expense writers in a group do not queue up on the groups row
+    public void invalidateGroupExpenses(Long groupId) {
+        PendingInvalidations pending = currentPending();
+        if (pending == null) {
+            transactionTemplate.executeWithoutResult(status -> invalidateGroupExpenses(groupId));
+            return;
+        }
+        pending.expenseGroupIds.add(groupId);
+    }
+
+    public void invalidateUser(Long userId) {
+        PendingInvalidations pending = currentPending();
+        if (pending == null) {
+            transactionTemplate.executeWithoutResult(status -> invalidateUser(userId));
+            return;
+        }
+        pending.userIds.add(userId);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public String getChannel() {
+        return channel;
+    }
+
+    public long getKnownGroupVersion(Long groupId) {
+        return knownGroupVersions.getOrDefault(groupId, 0L);
+    }
+
+    // Applies a coalesced batch from other nodes; stale or duplicate group versions are skipped
+    public void applyRemote(Map<Long, Long> groupVersions, Set<Long> expenseGroupIds, Set<Long> userIds) {
+        Cache membersCache = cacheManager.getCache(GROUP_MEMBERS_CACHE);
+        for (Map.Entry<Long, Long> entry : groupVersions.entrySet()) {
+            if (recordVersion(entry.getKey(), entry.getValue())) {
+                if (membersCache != null) {
+                    membersCache.evict(entry.getKey());
+                }
+            }
+        }
+        expenseGroupIds.forEach(expenseSearchService::evictGroup);
+
+        Cache usersCache = cacheManager.getCache(USERS_CACHE);
+        if (usersCache != null) {
+            userIds.forEach(usersCache::evict);
+        }
+    }
+
+    // Used after (re)connecting to the channel, when notifications may have been missed
+    public void flushAll() {
+        for (String name : cacheManager.getCacheNames()) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+        expenseSearchService.evictAll();
+        log.info("Flushed local caches after (re)connecting to the invalidation channel");
+    }
+
+    // Parses "nodeId|group:12:57,expenses:12:0,user:3:0"; returns null for this node's own messages
+    Invalidations parse(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return null;
+        }
+
+        Invalidations invalidations = new Invalidations();
+        for (String entry : payload.substring(separator + 1).split(",")) {
+            String[] parts = entry.split(":");
+            if (parts.length != 3) {
+                continue;
+            }
+            long id = Long.parseLong(parts[1]);
+            if ("group".equals(parts[0])) {
+                invalidations.groupVersions.merge(id, Long.parseLong(parts[2]), Math::max);
+            } else if ("expenses".equals(parts[0])) {
+                invalidations.expenseGroupIds.add(id);
+            } else if ("user".equals(parts[0])) {
+                invalidations.userIds.add(id);
+            }
+        }
+        return invalidations;
+    }
+
+    private boolean recordVersion(Long groupId, long version) {
+        long previous = knownGroupVersions.getOrDefault(groupId, 0L);
+        if (version <= previous) {
+            return false;
+        }
+        knownGroupVersions.merge(groupId, version, Math::max);
+        return true;
+    }
+
+    private PendingInvalidations currentPending() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return null;
+        }
+        PendingInvalidations pending = (PendingInvalidations) TransactionSynchronizationManager.getResource(this);
+        if (pending == null) {
+            pending = new PendingInvalidations();
+            TransactionSynchronizationManager.bindResource(this, pending);
+            TransactionSynchronizationManager.registerSynchronization(pending);
+        }
+        return pending;
+    }
+
+    private void publish(List<String> entries) {
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int emptyLength = payload.length();
+        for (String entry : entries) {
+            // Payloads are ASCII, so characters are bytes
+            if (payload.length() > emptyLength && payload.length() + entry.length() + 1 > MAX_PAYLOAD_BYTES) {
+                sendNotification(payload.toString());
+                payload.setLength(emptyLength);
+            }
+            if (payload.length() > emptyLength) {
+                payload.append(',');
+            }
+            payload.append(entry);
+        }
+        if (payload.length() > emptyLength) {
+            sendNotification(payload.toString());
+        }
+    }
+
+    private void sendNotification(String payload) {
+        jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", String.class, channel, payload);
+    }
+
+    // Everything invalidated by one transaction, deduplicated and sent once just before commit
+    private class PendingInvalidations implements TransactionSynchronization {
+        final Set<Long> groupIds = new TreeSet<>();
+        final Set<Long> expenseGroupIds = new TreeSet<>();
+        final Set<Long> userIds = new TreeSet<>();
+        final Map<Long, Long> committedVersions = new HashMap<>();
+
+        @Override
+        public void beforeCommit(boolean readOnly) {
+            List<String> entries = new ArrayList<>();
+            if (!groupIds.isEmpty()) {
+                jdbcTemplate.query(
+                        "UPDATE groups SET version = version + 1 WHERE id = ANY(?) RETURNING id, version",
+                        rs -> {
+                            committedVersions.put(rs.getLong("id"), rs.getLong("version"));
+                        }, (Object) groupIds.toArray(new Long[0]));
+                committedVersions.forEach((groupId, version) -> entries.add("group:" + groupId + ":" + version));
+            }
+            for (Long groupId : expenseGroupIds) {
+                entries.add("expenses:" + groupId + ":0");
+            }
+            for (Long userId : userIds) {
+                entries.add("user:" + userId + ":0");
+            }
+            publish(entries);
+        }
+
+        @Override
+        public void afterCommit() {
+            Cache membersCache = cacheManager.getCache(GROUP_MEMBERS_CACHE);
+            committedVersions.forEach((groupId, version) -> {
+                recordVersion(groupId, version);
+                if (membersCache != null) {
+                    membersCache.evict(groupId);
+                }
+            });
+            Cache usersCache = cacheManager.getCache(USERS_CACHE);
+            if (usersCache != null) {
+                userIds.forEach(usersCache::evict);
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(CacheInvalidationService.this);
+        }
+    }
+
+    static class Invalidations {
+        final Map<Long, Long> groupVersions = new HashMap<>();
+        final Set<Long> expenseGroupIds = new HashSet<>();
+        final Set<Long> userIds = new HashSet<>();
+    }
+}
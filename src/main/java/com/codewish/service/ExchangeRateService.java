@@ -0,0 +1,125 @@
+package com.codewish.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.Resource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Serves exchange rates from an immutable snapshot; refresh builds a new one and swaps it in atomically
+@Service
+public class ExchangeRateService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExchangeRateService.class);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${codewish.currency.rates-file:classpath:db/exchange-rates.csv}")
+    private Resource ratesFile;
+
+    private final AtomicReference<RateSnapshot> snapshot = new AtomicReference<>(new RateSnapshot(0, Map.of()));
+
+    public RateSnapshot current() {
+        RateSnapshot current = snapshot.get();
+        if (current.getVersion() == 0) {
+            // Startup load failed or has not run yet
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        refresh();
+    }
+
+    // Cheap when nothing changed: only MAX(version) is read
+    @Scheduled(fixedDelayString = "${codewish.currency.refresh-ms:300000}",
+            initialDelayString = "${codewish.currency.refresh-ms:300000}")
+    public synchronized void refresh() {
+        Long version = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM exchange_rates", Long.class);
+        if (version == null || version == 0) {
+            seedFromFile();
+            version = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(version), 0) FROM exchange_rates", Long.class);
+        }
+        if (version == null || version == snapshot.get().getVersion()) {
+            return;
+        }
+
+        Map<String, BigDecimal> rates = new HashMap<>();
+        jdbcTemplate.query("SELECT currency, rate FROM exchange_rates", rs -> {
+            rates.put(rs.getString("currency"), rs.getBigDecimal("rate"));
+        });
+        snapshot.set(new RateSnapshot(version, rates));
+        log.info("Loaded {} exchange rates (version {})", rates.size(), version);
+    }
+
+    // The file stands in for a rates feed until one is wired up
+    private void seedFromFile() {
+        List<Object[]> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(ratesFile.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split(",");
+                rows.add(new Object[]{parts[0].trim(), new BigDecimal(parts[1].trim())});
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read exchange rates from " + ratesFile, e);
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO exchange_rates (currency, rate, version) VALUES (?, ?, 1) ON CONFLICT (currency) DO NOTHING",
+                rows);
+    }
+
+    // Immutable view of one version of the rates
+    public static class RateSnapshot {
+        private final long version;
+        private final Map<String, BigDecimal> rates;
+
+        public RateSnapshot(long version, Map<String, BigDecimal> rates) {
+            this.version = version;
+            this.rates = Map.copyOf(rates);
+        }
+
+        // Multiply an amount in "from" by this to get "to"
+        public BigDecimal factor(String from, String to) {
+            if (from.equals(to)) {
+                return BigDecimal.ONE;
+            }
+            BigDecimal fromRate = rates.get(from);
+            BigDecimal toRate = rates.get(to);
+            if (fromRate == null || toRate == null) {
+                throw new RuntimeException("No exchange rate for " + (fromRate == null ? from : to));
+            }
+            return fromRate.divide(toRate, MathContext.DECIMAL64);
+        }
+
+        public boolean supports(String currency) {
+            return rates.containsKey(currency);
+        }
+
+        public long getVersion() { return version; }
+        public SortedSet<String> getCurrencies() { return new TreeSet<>(rates.keySet()); }
+    }
+}
@@ -0,0 +1,159 @@
+package com.codewish.service;
+
+import com.codewish.event.ExpenseCreatedEvent;
+import com.codewish.event.ExpenseDeletedEvent;
+import com.codewish.event.ExpenseUpdatedEvent;
+import com.codewish.repository.ExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.*;
+
+@Service
+public class ExpenseSearchService {
+
+    @Autowired
+    private ExpenseRepository expenseRepository;
+
+    @Value("${codewish.search.max-memory-bytes:67108864}")
+    private long maxMemoryBytes;
+
+    // Access-ordered so the least recently searched group is evicted first
+    private final LinkedHashMap<Long, GroupExpenseIndex> indexes = new LinkedHashMap<>(16, 0.75f, true);
+
+    @Transactional(readOnly = true)
+    public List<SearchHit> search(Long groupId, String query, int limit) {
+        List<String> tokens = GroupExpenseIndex.tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        GroupExpenseIndex index = getOrCreateIndex(groupId);
+        index.ensureLoaded(() -> loadGroupExpenses(groupId));
+        enforceMemoryBudget(groupId);
+
+        List<SearchHit> hits = new ArrayList<>();
+        for (GroupExpenseIndex.ScoredExpense scored : index.search(tokens, limit)) {
+            GroupExpenseIndex.IndexedExpense expense = scored.getExpense();
+            hits.add(new SearchHit(expense.getExpenseId(), expense.getDescription(), expense.getAmount(),
+                    expense.getCurrency(), expense.getExpenseDate(), scored.getScore()));
+        }
+        return hits;
+    }
+
+    @TransactionalEventListener
+    public void onExpenseCreated(ExpenseCreatedEvent event) {
+        // Groups that were never searched (or were evicted) are built from the database on demand
+        GroupExpenseIndex index = getIndexIfPresent(event.getGroupId());
+        if (index != null) {
+            GroupExpenseIndex.IndexedExpense expense = new GroupExpenseIndex.IndexedExpense(event.getExpenseId(),
+                    event.getDescription(), event.getAmount(), event.getCurrency(), event.getExpenseDate());
+            index.applyChange(target -> target.add(expense));
+            enforceMemoryBudget(event.getGroupId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onExpenseUpdated(ExpenseUpdatedEvent event) {
+        GroupExpenseIndex index = getIndexIfPresent(event.getGroupId());
+        if (index != null) {
+            // Adding an existing id replaces its postings
+            GroupExpenseIndex.IndexedExpense expense = new GroupExpenseIndex.IndexedExpense(event.getExpenseId(),
+                    event.getDescription(), event.getAmount(), event.getCurrency(), event.getExpenseDate());
+            index.applyChange(target -> target.add(expense));
+            enforceMemoryBudget(event.getGroupId());
+        }
+    }
+
+    @TransactionalEventListener
+    public void onExpenseDeleted(ExpenseDeletedEvent event) {
+        GroupExpenseIndex index = getIndexIfPresent(event.getGroupId());
+        if (index != null) {
+            index.applyChange(target -> target.remove(event.getExpenseId()));
+        }
+    }
+
+    public void evictGroup(Long groupId) {
+        synchronized (indexes) {
+            indexes.remove(groupId);
+        }
+    }
+
+    public void evictAll() {
+        synchronized (indexes) {
+            indexes.clear();
+        }
+    }
+
+    private List<GroupExpenseIndex.IndexedExpense> loadGroupExpenses(Long groupId) {
+        List<GroupExpenseIndex.IndexedExpense> expenses = new ArrayList<>();
+        for (Object[] row : expenseRepository.findSearchableByGroupId(groupId)) {
+            expenses.add(new GroupExpenseIndex.IndexedExpense((Long) row[0], (String) row[1],
+                    (BigDecimal) row[2], (String) row[3], (LocalDate) row[4]));
+        }
+        return expenses;
+    }
+
+    private GroupExpenseIndex getOrCreateIndex(Long groupId) {
+        synchronized (indexes) {
+            return indexes.computeIfAbsent(groupId, GroupExpenseIndex::new);
+        }
+    }
+
+    private GroupExpenseIndex getIndexIfPresent(Long groupId) {
+        synchronized (indexes) {
+            return indexes.get(groupId);
+        }
+    }
+
+    private void enforceMemoryBudget(Long activeGroupId) {
+        synchronized (indexes) {
+            long total = 0;
+            for (GroupExpenseIndex index : indexes.values()) {
+                total += index.getEstimatedBytes();
+            }
+
+            Iterator<Map.Entry<Long, GroupExpenseIndex>> iterator = indexes.entrySet().iterator();
+            while (total > maxMemoryBytes && iterator.hasNext()) {
+                Map.Entry<Long, GroupExpenseIndex> eldest = iterator.next();
+                if (eldest.getKey().equals(activeGroupId)) {
+                    continue;
+                }
+                total -= eldest.getValue().getEstimatedBytes();
+                iterator.remove();
+            }
+        }
+    }
+
+    // Inner class for search results
+    public static class SearchHit {
+        private Long expenseId;
+        private String description;
+        private BigDecimal amount;
+        private String currency;
+        private LocalDate expenseDate;
+        private double score;
+
+        public SearchHit(Long expenseId, String description, BigDecimal amount, String currency,
+                         LocalDate expenseDate, double score) {
+            this.expenseId = expenseId;
+            this.description = description;
+            this.amount = amount;
+            this.currency = currency;
+            this.expenseDate = expenseDate;
+            this.score = score;
+        }
+
+        // Getters
+        public Long getExpenseId() { return expenseId; }
+        public String getDescription() { return description; }
+        public BigDecimal getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+        public LocalDate getExpenseDate() { return expenseDate; }
+        public double getScore() { return score; }
+    }
+}
@@ -1,5 +1,8 @@
 package com.codewish.service;
 
+import com.codewish.event.ExpenseCreatedEvent;
+import com.codewish.event.ExpenseDeletedEvent;
+import com.codewish.event.ExpenseUpdatedEvent;
 import com.codewish.model.Expense;
 import com.codewish.model.ExpenseSplit;
 import com.codewish.model.Group;
@@ -8,14 +11,18 @@ import com.codewish.repository.ExpenseRepository;
 import com.codewish.repository.ExpenseSplitRepository;
 import com.codewish.repository.GroupMemberRepository;
 import com.codewish.repository.GroupRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.sql.Timestamp;
 import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import java.util.*;
 
 @Service
 public class ExpenseService {
@@ -32,8 +39,26 @@ public class ExpenseService {
     @Autowired
     private GroupMemberRepository groupMemberRepository;
 
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
     @Transactional
-    public Expense createExpenseWithEqualSplit(Long groupId, String description, BigDecimal amount,
+    public Expense createExpenseWithEqualSplit(Long groupId, String description, BigDecimal amount, String currency,
                                                Long paidByUserId, LocalDate expenseDate) {
         Optional<Group> groupOpt = groupRepository.findById(groupId);
         if (!groupOpt.isPresent()) {
@@ -42,22 +67,30 @@ public class ExpenseService {
 
         Group group = groupOpt.get();
         Expense expense = new Expense(group, description, amount, paidByUserId, expenseDate);
+        expense.setCurrency(resolveCurrency(group, currency));
+        expense.setFxRate(fxRateFor(group, expense.getCurrency()));
         Expense savedExpense = expenseRepository.save(expense);
 
         // Create equal splits for all group members
         List<GroupMember> members = groupMemberRepository.findByGroupId(groupId);
         BigDecimal splitAmount = amount.divide(new BigDecimal(members.size()), 2, RoundingMode.HALF_UP);
 
+        Map<Long, BigDecimal> owedByUser = new HashMap<>();
         for (GroupMember member : members) {
             ExpenseSplit split = new ExpenseSplit(savedExpense, member.getUser().getId(), splitAmount);
             expenseSplitRepository.save(split);
+            owedByUser.put(split.getUserId(), splitAmount);
         }
 
+        BigDecimal rollupFactor = storedFactor(savedExpense);
+        spendingAnalyticsService.recordExpense(groupId, paidByUserId, convert(amount, rollupFactor), expenseDate,
+                convert(owedByUser, rollupFactor), false);
+        publishExpenseCreated(savedExpense, owedByUser, false);
         return savedExpense;
     }
 
     @Transactional
-    public Expense createExpenseWithCustomSplit(Long groupId, String description, BigDecimal amount,
+    public Expense createExpenseWithCustomSplit(Long groupId, String description, BigDecimal amount, String currency,
                                                 Long paidByUserId, LocalDate expenseDate, List<Long> participantIds) {
         Optional<Group> groupOpt = groupRepository.findById(groupId);
         if (!groupOpt.isPresent()) {
@@ -70,18 +103,27 @@ public class ExpenseService {
 
         Group group = groupOpt.get();
         Expense expense = new Expense(group, description, amount, paidByUserId, expenseDate);
+        expense.setCurrency(resolveCurrency(group, currency));
+        expense.setFxRate(fxRateFor(group, expense.getCurrency()));
         Expense savedExpense = expenseRepository.save(expense);
 
         // Create equal splits only for selected participants
         BigDecimal splitAmount = amount.divide(new BigDecimal(participantIds.size()), 2, RoundingMode.HALF_UP);
 
+        Map<Long, BigDecimal> owedByUser = new HashMap<>();
         for (Long participantId : participantIds) {
             ExpenseSplit split = new ExpenseSplit(savedExpense, participantId, splitAmount);
             expenseSplitRepository.save(split);
+            owedByUser.put(participantId, splitAmount);
         }
 
+        BigDecimal rollupFactor = storedFactor(savedExpense);
+        spendingAnalyticsService.recordExpense(groupId, paidByUserId, convert(amount, rollupFactor), expenseDate,
+                convert(owedByUser, rollupFactor), false);
+        publishExpenseCreated(savedExpense, owedByUser, false);
         return savedExpense;
     }
+    @Transactional(readOnly = true)
     public List<Expense> getGroupExpenses(Long groupId) {
         return expenseRepository.findByGroupIdOrderByDateDesc(groupId);
     }
@@ -92,24 +134,332 @@ public class ExpenseService {
 
     @Transactional
     public void createSettlementExpense(Long groupId, Long fromUserId, Long toUserId, BigDecimal amount) {
-        Optional<Group> groupOpt = groupRepository.findById(groupId);
-        if (!groupOpt.isPresent()) {
-            throw new RuntimeException("Group not found");
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Amount must be positive");
         }
+        // Same lock as settleAll, so the debt is checked and settled without a concurrent settlement in between
+        Group group = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
 
-        Group group = groupOpt.get();
+        Map<Long, BigDecimal> balances = balanceService.getGroupBalances(groupId);
+        BigDecimal owed = balances.getOrDefault(fromUserId, BigDecimal.ZERO).negate()
+                .min(balances.getOrDefault(toUserId, BigDecimal.ZERO));
+        if (amount.compareTo(owed) > 0) {
+            throw new RuntimeException("This debt has already been settled");
+        }
 
         // Create settlement expense - person who owes money "pays" the settlement
-        Expense settlementExpense = new Expense(group, "Settlement", amount, fromUserId, java.time.LocalDate.now());
+        Expense settlementExpense = new Expense(group, Expense.SETTLEMENT_DESCRIPTION, amount, fromUserId, java.time.LocalDate.now());
         Expense savedExpense = expenseRepository.save(settlementExpense);
 
         // Create split where only the person who should receive money "owes" the settlement
         // This effectively transfers the debt
         ExpenseSplit split = new ExpenseSplit(savedExpense, toUserId, amount);
         expenseSplitRepository.save(split);
+
+        Map<Long, BigDecimal> owedByUser = Map.of(toUserId, amount);
+        spendingAnalyticsService.recordExpense(groupId, fromUserId, amount, savedExpense.getExpenseDate(),
+                owedByUser, true);
+        publishExpenseCreated(savedExpense, owedByUser, true);
+    }
+
+    // Records every suggested transfer at once: balances are read and settled under the group lock,
+    // and all settlement expenses and splits go in as one batch
+    @Transactional
+    public SettleAllResult settleAll(Long groupId) {
+        Group group = groupRepository.findByIdForUpdate(groupId)
+                .orElseThrow(() -> new RuntimeException("Group not found"));
+
+        Map<Long, BigDecimal> balances = balanceService.getGroupBalances(groupId);
+        List<BalanceService.Settlement> transfers = balanceService.getGroupSettlements(groupId, balances);
+        if (transfers.isEmpty()) {
+            return new SettleAllResult(transfers, balances);
+        }
+
+        List<Long> expenseIds = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('expenses', 'id')) FROM generate_series(1, ?)",
+                Long.class, transfers.size());
+
+        LocalDate today = LocalDate.now();
+        Timestamp now = new Timestamp(System.currentTimeMillis());
+        List<Object[]> expenseRows = new ArrayList<>();
+        List<Object[]> splitRows = new ArrayList<>();
+        List<SpendingAnalyticsService.RollupEntry> rollupEntries = new ArrayList<>();
+        List<ExpenseCreatedEvent> events = new ArrayList<>();
+        Map<Long, BigDecimal> settledBalances = new HashMap<>(balances);
+
+        for (int i = 0; i < transfers.size(); i++) {
+            BalanceService.Settlement transfer = transfers.get(i);
+            Long expenseId = expenseIds.get(i);
+            Map<Long, BigDecimal> owedByUser = Map.of(transfer.getToUserId(), transfer.getAmount());
+
+            // Same shape as createSettlementExpense: the debtor pays, the creditor owes
+            expenseRows.add(new Object[]{expenseId, groupId, Expense.SETTLEMENT_DESCRIPTION, transfer.getAmount(),
+                    transfer.getFromUserId(), java.sql.Date.valueOf(today), now});
+            splitRows.add(new Object[]{expenseId, groupId, transfer.getToUserId(), transfer.getAmount()});
+            rollupEntries.add(new SpendingAnalyticsService.RollupEntry(groupId, transfer.getFromUserId(),
+                    transfer.getAmount(), today, owedByUser, true));
+            events.add(new ExpenseCreatedEvent(groupId, expenseId, Expense.SETTLEMENT_DESCRIPTION, transfer.getAmount(),
+                    group.getBaseCurrency(), transfer.getFromUserId(), today, true, owedByUser));
+
+            settledBalances.merge(transfer.getFromUserId(), transfer.getAmount(), BigDecimal::add);
+            settledBalances.merge(transfer.getToUserId(), transfer.getAmount().negate(), BigDecimal::add);
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expenses (id, group_id, description, amount, paid_by_user_id, expense_date, created_date) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?)", expenseRows);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expense_splits (expense_id, group_id, user_id, amount_owed) VALUES (?, ?, ?, ?)", splitRows);
+        spendingAnalyticsService.recordExpenses(rollupEntries);
+        events.forEach(eventPublisher::publishEvent);
+
+        return new SettleAllResult(transfers, settledBalances);
     }
 
     public List<ExpenseSplit> getExpenseSplits(Long expenseId) {
         return expenseSplitRepository.findByExpenseId(expenseId);
     }
-}
\ No newline at end of file
+
+    // Rewrites an expense in place: only changed split rows are touched and rollups are adjusted by the difference
+    @Transactional
+    public Expense updateExpense(Long expenseId, String description, BigDecimal amount, String currency,
+                                 Long paidByUserId, LocalDate expenseDate, List<Long> participantIds, Long changedBy) {
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        Expense expense = lockAndLoadEditableExpense(expenseId);
+        Long groupId = expense.getGroup().getId();
+        String oldCurrency = expense.getCurrency();
+        String newCurrency = isSettlement(expense) ? oldCurrency : resolveCurrency(expense.getGroup(), currency);
+        Map<Long, BigDecimal> oldSplits = getSplitAmounts(expenseId);
+
+        // Keep the current participants unless a new selection was made
+        List<Long> participants = participantIds != null && !participantIds.isEmpty()
+                ? participantIds : new ArrayList<>(oldSplits.keySet());
+        if (participants.isEmpty()) {
+            throw new RuntimeException("At least one participant is required");
+        }
+        Set<Long> involved = new HashSet<>(participants);
+        involved.add(paidByUserId);
+        if (groupMemberRepository.findMemberUserIds(groupId, involved).size() < involved.size()) {
+            throw new RuntimeException("Payer and participants must be members of this group");
+        }
+        BigDecimal splitAmount = amount.divide(new BigDecimal(participants.size()), 2, RoundingMode.HALF_UP);
+        Map<Long, BigDecimal> newSplits = new HashMap<>();
+        for (Long participantId : participants) {
+            newSplits.put(participantId, splitAmount);
+        }
+
+        Map<String, Object> afterState = new LinkedHashMap<>();
+        afterState.put("description", description);
+        afterState.put("amount", amount);
+        afterState.put("currency", newCurrency);
+        afterState.put("paidByUserId", paidByUserId);
+        afterState.put("expenseDate", expenseDate.toString());
+        afterState.put("splits", newSplits);
+        recordAudit(expense, oldSplits, afterState, "UPDATE", changedBy);
+        BigDecimal oldFactor = storedFactor(expense);
+        spendingAnalyticsService.reverseExpense(groupId, expense.getPaidByUserId(),
+                convert(expense.getAmount(), oldFactor), expense.getExpenseDate(), convert(oldSplits, oldFactor),
+                isSettlement(expense));
+
+        Set<Long> affectedUsers = new TreeSet<>(oldSplits.keySet());
+        affectedUsers.addAll(newSplits.keySet());
+        affectedUsers.add(expense.getPaidByUserId());
+        affectedUsers.add(paidByUserId);
+
+        // An edit that keeps the currency keeps the rate the expense was recorded at
+        BigDecimal newFxRate = Objects.equals(oldCurrency, newCurrency) ? expense.getFxRate()
+                : fxRateFor(expense.getGroup(), newCurrency);
+        applySplitChanges(groupId, expenseId, newCurrency, newFxRate, oldSplits, newSplits);
+        if (!Objects.equals(oldCurrency, newCurrency)) {
+            jdbcTemplate.update("UPDATE expense_splits SET currency = ?, fx_rate = ? WHERE expense_id = ?",
+                    newCurrency, newFxRate, expenseId);
+        }
+
+        expense.setDescription(description);
+        expense.setAmount(amount);
+        expense.setCurrency(newCurrency);
+        expense.setFxRate(newFxRate);
+        expense.setPaidByUserId(paidByUserId);
+        expense.setExpenseDate(expenseDate);
+        Expense savedExpense = expenseRepository.save(expense);
+
+        BigDecimal newFactor = storedFactor(savedExpense);
+        spendingAnalyticsService.recordExpense(groupId, paidByUserId, convert(amount, newFactor), expenseDate,
+                convert(newSplits, newFactor), isSettlement(savedExpense));
+        eventPublisher.publishEvent(new ExpenseUpdatedEvent(groupId, expenseId, description, amount,
+                displayCurrency(savedExpense), paidByUserId, expenseDate, affectedUsers));
+        return savedExpense;
+    }
+
+    @Transactional
+    public Long deleteExpense(Long expenseId, Long deletedBy) {
+        Expense expense = lockAndLoadEditableExpense(expenseId);
+        Long groupId = expense.getGroup().getId();
+        Map<Long, BigDecimal> oldSplits = getSplitAmounts(expenseId);
+
+        recordAudit(expense, oldSplits, null, "DELETE", deletedBy);
+        BigDecimal factor = storedFactor(expense);
+        spendingAnalyticsService.reverseExpense(groupId, expense.getPaidByUserId(),
+                convert(expense.getAmount(), factor), expense.getExpenseDate(), convert(oldSplits, factor),
+                isSettlement(expense));
+
+        // Splits go with it through ON DELETE CASCADE
+        jdbcTemplate.update("DELETE FROM expenses WHERE id = ?", expenseId);
+
+        Set<Long> affectedUsers = new TreeSet<>(oldSplits.keySet());
+        affectedUsers.add(expense.getPaidByUserId());
+        eventPublisher.publishEvent(new ExpenseDeletedEvent(groupId, expenseId, affectedUsers));
+        return groupId;
+    }
+
+    private Expense lockAndLoadEditableExpense(Long expenseId) {
+        Long groupId = expenseRepository.findGroupIdById(expenseId)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        // Same lock as history compaction, taken before the expense is read
+        groupRepository.findByIdForUpdate(groupId);
+
+        Expense expense = expenseRepository.findById(expenseId)
+                .orElseThrow(() -> new RuntimeException("Expense not found"));
+        if (expense.isOpeningBalance()) {
+            throw new RuntimeException("Opening balances cannot be changed");
+        }
+        return expense;
+    }
+
+    private Map<Long, BigDecimal> getSplitAmounts(Long expenseId) {
+        Map<Long, BigDecimal> splits = new HashMap<>();
+        for (ExpenseSplit split : expenseSplitRepository.findByExpenseId(expenseId)) {
+            splits.put(split.getUserId(), split.getAmountOwed());
+        }
+        return splits;
+    }
+
+    private void applySplitChanges(Long groupId, Long expenseId, String currency, BigDecimal fxRate,
+                                   Map<Long, BigDecimal> oldSplits, Map<Long, BigDecimal> newSplits) {
+        List<Object[]> deletes = new ArrayList<>();
+        List<Object[]> updates = new ArrayList<>();
+        List<Object[]> inserts = new ArrayList<>();
+
+        for (Map.Entry<Long, BigDecimal> old : oldSplits.entrySet()) {
+            BigDecimal updated = newSplits.get(old.getKey());
+            if (updated == null) {
+                deletes.add(new Object[]{expenseId, old.getKey()});
+            } else if (updated.compareTo(old.getValue()) != 0) {
+                updates.add(new Object[]{updated, expenseId, old.getKey()});
+            }
+        }
+        for (Map.Entry<Long, BigDecimal> added : newSplits.entrySet()) {
+            if (!oldSplits.containsKey(added.getKey())) {
+                inserts.add(new Object[]{expenseId, groupId, added.getKey(), added.getValue(), currency, fxRate});
+            }
+        }
+
+        if (!deletes.isEmpty()) {
+            jdbcTemplate.batchUpdate("DELETE FROM expense_splits WHERE expense_id = ? AND user_id = ?", deletes);
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("UPDATE expense_splits SET amount_owed = ? WHERE expense_id = ? AND user_id = ?", updates);
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO expense_splits (expense_id, group_id, user_id, amount_owed, currency, fx_rate) " +
+                    "VALUES (?, ?, ?, ?, ?, ?)",
+                    inserts);
+        }
+    }
+
+    // The row's columns hold the state before the change; afterState is null for a delete
+    private void recordAudit(Expense expense, Map<Long, BigDecimal> splits, Map<String, Object> afterState,
+                             String action, Long changedBy) {
+        String splitsJson;
+        String afterJson;
+        try {
+            splitsJson = objectMapper.writeValueAsString(splits);
+            afterJson = afterState != null ? objectMapper.writeValueAsString(afterState) : null;
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize expense audit state", e);
+        }
+
+        jdbcTemplate.update(
+                "INSERT INTO expense_audit (expense_id, group_id, action, description, amount, currency, paid_by_user_id, " +
+                "expense_date, splits, after_state, changed_by) " +
+                "VALUES (?, ?, ?, ?, ?, ?, ?, ?, CAST(? AS JSONB), CAST(? AS JSONB), ?)",
+                expense.getId(), expense.getGroup().getId(), action, expense.getDescription(), expense.getAmount(),
+                expense.getCurrency(), expense.getPaidByUserId(), java.sql.Date.valueOf(expense.getExpenseDate()), splitsJson,
+                afterJson, changedBy);
+    }
+
+    // Stored as null when it is the group's base currency, so single-currency groups never convert
+    private String resolveCurrency(Group group, String currency) {
+        if (currency == null || currency.isBlank()) {
+            return null;
+        }
+        String code = currency.trim().toUpperCase();
+        if (code.equals(group.getBaseCurrency())) {
+            return null;
+        }
+        if (!exchangeRateService.current().supports(code)) {
+            throw new RuntimeException("Unsupported currency: " + code);
+        }
+        return code;
+    }
+
+    // Balances and spending rollups are kept in the group's base currency, converted at the rate current
+    // when recorded. Null for the base currency itself
+    private BigDecimal fxRateFor(Group group, String currency) {
+        if (currency == null) {
+            return null;
+        }
+        return exchangeRateService.current().factor(currency, group.getBaseCurrency()).setScale(10, RoundingMode.HALF_UP);
+    }
+
+    // Reversals must use the same rate the rollups were built with, not today's
+    private BigDecimal storedFactor(Expense expense) {
+        return expense.getFxRate() != null ? expense.getFxRate() : BigDecimal.ONE;
+    }
+
+    private BigDecimal convert(BigDecimal amount, BigDecimal factor) {
+        return factor.compareTo(BigDecimal.ONE) == 0 ? amount : amount.multiply(factor).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private Map<Long, BigDecimal> convert(Map<Long, BigDecimal> amounts, BigDecimal factor) {
+        if (factor.compareTo(BigDecimal.ONE) == 0) {
+            return amounts;
+        }
+        Map<Long, BigDecimal> converted = new HashMap<>();
+        amounts.forEach((userId, amount) -> converted.put(userId, convert(amount, factor)));
+        return converted;
+    }
+
+    private String displayCurrency(Expense expense) {
+        return expense.getCurrency() != null ? expense.getCurrency() : expense.getGroup().getBaseCurrency();
+    }
+
+    private boolean isSettlement(Expense expense) {
+        return Expense.SETTLEMENT_DESCRIPTION.equals(expense.getDescription());
+    }
+
+    private void publishExpenseCreated(Expense expense, Map<Long, BigDecimal> owedByUser, boolean settlement) {
+        eventPublisher.publishEvent(new ExpenseCreatedEvent(expense.getGroup().getId(), expense.getId(),
+                expense.getDescription(), expense.getAmount(), displayCurrency(expense), expense.getPaidByUserId(),
+                expense.getExpenseDate(), settlement, owedByUser));
+    }
+
+    // Inner class for the outcome of settleAll
+    public static class SettleAllResult {
+        private List<BalanceService.Settlement> transfers;
+        private Map<Long, BigDecimal> balances;
+
+        public SettleAllResult(List<BalanceService.Settlement> transfers, Map<Long, BigDecimal> balances) {
+            this.transfers = transfers;
+            this.balances = balances;
+        }
+
+        // Getters
+        public List<BalanceService.Settlement> getTransfers() { return transfers; }
+        public Map<Long, BigDecimal> getBalances() { return balances; }
+    }
+}
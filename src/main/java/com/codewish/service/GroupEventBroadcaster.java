@@ -0,0 +1,263 @@
+package com.codewish.service;
+
+import com.codewish.event.ExpenseCreatedEvent;
+import com.codewish.event.ExpenseDeletedEvent;
+import com.codewish.event.ExpenseUpdatedEvent;
+import com.codewish.event.MemberAddedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes compact per-group deltas to Server-Sent Events subscribers
+@Service
+public class GroupEventBroadcaster {
+
+    private static final String RESYNC_EVENT = "resync";
+
+    private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Autowired
+    private BalanceService balanceService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${codewish.events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${codewish.events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${codewish.events.stale-after-ms:60000}")
+    private long staleAfterMillis;
+
+    private final TransactionTemplate freshTransaction;
+
+    public GroupEventBroadcaster(PlatformTransactionManager transactionManager) {
+        // Balances are read after the write committed, so they need their own (primary) transaction
+        this.freshTransaction = new TransactionTemplate(transactionManager);
+        this.freshTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public SseEmitter subscribe(Long groupId) {
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscriber subscriber = new Subscriber(groupId, emitter, bufferSize);
+
+        subscribers.computeIfAbsent(groupId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(error -> unsubscribe(subscriber));
+        return emitter;
+    }
+
+    public int getSubscriberCount(Long groupId) {
+        Set<Subscriber> groupSubscribers = subscribers.get(groupId);
+        return groupSubscribers == null ? 0 : groupSubscribers.size();
+    }
+
+    @TransactionalEventListener
+    public void onExpenseCreated(ExpenseCreatedEvent event) {
+        if (getSubscriberCount(event.getGroupId()) == 0) {
+            return;
+        }
+
+        Set<Long> affectedUsers = new TreeSet<>(event.getSplits().keySet());
+        affectedUsers.add(event.getPaidByUserId());
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("expenseId", event.getExpenseId());
+        delta.put("description", event.getDescription());
+        delta.put("amount", event.getAmount());
+        delta.put("currency", event.getCurrency());
+        delta.put("paidByUserId", event.getPaidByUserId());
+        delta.put("expenseDate", event.getExpenseDate().toString());
+        delta.put("balances", freshTransaction.execute(status -> loadBalances(event.getGroupId(), affectedUsers)));
+
+        publish(event.getGroupId(), event.isSettlement() ? "settlement" : "expense", delta);
+    }
+
+    @TransactionalEventListener
+    public void onExpenseUpdated(ExpenseUpdatedEvent event) {
+        if (getSubscriberCount(event.getGroupId()) == 0) {
+            return;
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("expenseId", event.getExpenseId());
+        delta.put("description", event.getDescription());
+        delta.put("amount", event.getAmount());
+        delta.put("currency", event.getCurrency());
+        delta.put("paidByUserId", event.getPaidByUserId());
+        delta.put("expenseDate", event.getExpenseDate().toString());
+        delta.put("balances", freshTransaction.execute(status ->
+                loadBalances(event.getGroupId(), event.getAffectedUserIds())));
+
+        publish(event.getGroupId(), "expense-updated", delta);
+    }
+
+    @TransactionalEventListener
+    public void onExpenseDeleted(ExpenseDeletedEvent event) {
+        if (getSubscriberCount(event.getGroupId()) == 0) {
+            return;
+        }
+
+        Map<String, Object> delta = new LinkedHashMap<>();
+        delta.put("expenseId", event.getExpenseId());
+        delta.put("balances", freshTransaction.execute(status ->
+                loadBalances(event.getGroupId(), event.getAffectedUserIds())));
+
+        publish(event.getGroupId(), "expense-deleted", delta);
+    }
+
+    @TransactionalEventListener
+    public void onMemberAdded(MemberAddedEvent event) {
+        if (getSubscriberCount(event.getGroupId()) == 0) {
+            return;
+        }
+        publish(event.getGroupId(), "member", Map.of("userId", event.getUserId()));
+    }
+
+    // Serializes once and fans the same payload out to every subscriber's buffer
+    public void publish(Long groupId, String eventName, Object payload) {
+        Set<Subscriber> groupSubscribers = subscribers.get(groupId);
+        if (groupSubscribers == null || groupSubscribers.isEmpty()) {
+            return;
+        }
+
+        String data;
+        try {
+            data = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialize group event", e);
+        }
+
+        Message message = new Message(eventName, data);
+        for (Subscriber subscriber : groupSubscribers) {
+            subscriber.enqueue(message);
+            scheduleDrain(subscriber);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${codewish.events.heartbeat-ms:20000}")
+    public void sendHeartbeats() {
+        long now = System.currentTimeMillis();
+        for (Set<Subscriber> groupSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : groupSubscribers) {
+                // A connection that has not accepted anything for a while is treated as dead
+                if (now - subscriber.lastSuccessfulSendAt > staleAfterMillis) {
+                    subscriber.emitter.complete();
+                    unsubscribe(subscriber);
+                    continue;
+                }
+                subscriber.enqueue(Message.HEARTBEAT);
+                scheduleDrain(subscriber);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Set<Subscriber> groupSubscribers : subscribers.values()) {
+            for (Subscriber subscriber : groupSubscribers) {
+                subscriber.emitter.complete();
+            }
+        }
+        subscribers.clear();
+        senders.shutdownNow();
+    }
+
+    private Map<Long, BigDecimal> loadBalances(Long groupId, Set<Long> userIds) {
+        Map<Long, BigDecimal> groupBalances = balanceService.getGroupBalances(groupId);
+        Map<Long, BigDecimal> balances = new LinkedHashMap<>();
+        for (Long userId : userIds) {
+            balances.put(userId, groupBalances.getOrDefault(userId, BigDecimal.ZERO));
+        }
+        return balances;
+    }
+
+    private void scheduleDrain(Subscriber subscriber) {
+        if (subscriber.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(subscriber));
+        }
+    }
+
+    private void drain(Subscriber subscriber) {
+        do {
+            Message message;
+            while ((message = subscriber.queue.poll()) != null) {
+                try {
+                    if (message == Message.HEARTBEAT) {
+                        subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                    } else {
+                        subscriber.emitter.send(SseEmitter.event().name(message.name)
+                                .data(message.data, MediaType.APPLICATION_JSON));
+                    }
+                    subscriber.lastSuccessfulSendAt = System.currentTimeMillis();
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(subscriber);
+                    subscriber.queue.clear();
+                    return;
+                }
+            }
+            subscriber.draining.set(false);
+            // Re-check in case a message arrived between the last poll and releasing the flag
+        } while (!subscriber.queue.isEmpty() && subscriber.draining.compareAndSet(false, true));
+    }
+
+    private void unsubscribe(Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.groupId, (id, groupSubscribers) -> {
+            groupSubscribers.remove(subscriber);
+            return groupSubscribers.isEmpty() ? null : groupSubscribers;
+        });
+    }
+
+    private static class Message {
+        static final Message HEARTBEAT = new Message("heartbeat", "");
+
+        final String name;
+        final String data;
+
+        Message(String name, String data) {
+            this.name = name;
+            this.data = data;
+        }
+    }
+
+    private static class Subscriber {
+        final Long groupId;
+        final SseEmitter emitter;
+        final BlockingQueue<Message> queue;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile long lastSuccessfulSendAt = System.currentTimeMillis();
+
+        Subscriber(Long groupId, SseEmitter emitter, int bufferSize) {
+            this.groupId = groupId;
+            this.emitter = emitter;
+            this.queue = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        // A slow client whose buffer fills up loses its backlog and is told to reload instead
+        void enqueue(Message message) {
+            if (!queue.offer(message)) {
+                queue.clear();
+                queue.offer(new Message(RESYNC_EVENT, "{}"));
+            }
+        }
+    }
+}
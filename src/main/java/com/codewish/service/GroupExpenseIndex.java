@@ -0,0 +1,249 @@
+package com.codewish.service;
+
+import java.math.BigDecimal;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+// Inverted index over the expense descriptions of a single group
+public class GroupExpenseIndex {
+
+    // Rough per-entry sizes used to keep the total index footprint under budget
+    private static final long DOCUMENT_OVERHEAD_BYTES = 120;
+    private static final long TERM_OVERHEAD_BYTES = 80;
+    private static final long POSTING_BYTES = 48;
+
+    private static final double PREFIX_MATCH_WEIGHT = 0.5;
+
+    private final Long groupId;
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, IndexedExpense> documents = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Committed changes that arrived before the initial load; guarded by this
+    private final List<Consumer<GroupExpenseIndex>> pendingChanges = new ArrayList<>();
+    private volatile boolean loaded;
+    private volatile long estimatedBytes;
+
+    public GroupExpenseIndex(Long groupId) {
+        this.groupId = groupId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public long getEstimatedBytes() {
+        return estimatedBytes;
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Loads the group's existing expenses once. Changes are applied under the same monitor, so one that
+    // commits during the load lands after the snapshot, and ones queued before it are replayed over it
+    public void ensureLoaded(Supplier<List<IndexedExpense>> loader) {
+        if (loaded) {
+            return;
+        }
+        synchronized (this) {
+            if (loaded) {
+                return;
+            }
+            for (IndexedExpense expense : loader.get()) {
+                add(expense);
+            }
+            for (Consumer<GroupExpenseIndex> change : pendingChanges) {
+                change.accept(this);
+            }
+            pendingChanges.clear();
+            loaded = true;
+        }
+    }
+
+    // Entry point for committed expense changes; add and remove are for building the index directly
+    public synchronized void applyChange(Consumer<GroupExpenseIndex> change) {
+        if (loaded) {
+            change.accept(this);
+        } else {
+            pendingChanges.add(change);
+        }
+    }
+
+    public void add(IndexedExpense expense) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(expense.getExpenseId());
+
+            List<String> tokens = tokenize(expense.getDescription());
+            Map<String, Integer> termFrequencies = new HashMap<>();
+            for (String token : tokens) {
+                termFrequencies.merge(token, 1, Integer::sum);
+            }
+
+            long bytes = DOCUMENT_OVERHEAD_BYTES + 2L * expense.getDescription().length();
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                Map<Long, Integer> termPostings = postings.get(entry.getKey());
+                if (termPostings == null) {
+                    termPostings = new HashMap<>();
+                    postings.put(entry.getKey(), termPostings);
+                    bytes += TERM_OVERHEAD_BYTES + 2L * entry.getKey().length();
+                }
+                termPostings.put(expense.getExpenseId(), entry.getValue());
+                bytes += POSTING_BYTES;
+            }
+
+            expense.tokenCount = tokens.size();
+            expense.distinctTerms = termFrequencies.keySet();
+            documents.put(expense.getExpenseId(), expense);
+            estimatedBytes += bytes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long expenseId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(expenseId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long expenseId) {
+        IndexedExpense existing = documents.remove(expenseId);
+        if (existing == null) {
+            return;
+        }
+
+        long bytes = DOCUMENT_OVERHEAD_BYTES + 2L * existing.getDescription().length();
+        for (String term : existing.distinctTerms) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            if (termPostings == null) {
+                continue;
+            }
+            termPostings.remove(expenseId);
+            bytes += POSTING_BYTES;
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                bytes += TERM_OVERHEAD_BYTES + 2L * term.length();
+            }
+        }
+        estimatedBytes = Math.max(0, estimatedBytes - bytes);
+    }
+
+    // Every query token must match a term exactly or as a prefix; exact matches rank higher
+    public List<ScoredExpense> search(List<String> queryTokens, int limit) {
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            Map<Long, Double> scores = null;
+
+            for (String queryToken : new LinkedHashSet<>(queryTokens)) {
+                Map<Long, Double> tokenScores = new HashMap<>();
+                SortedMap<String, Map<Long, Integer>> matches =
+                        postings.subMap(queryToken, true, queryToken + Character.MAX_VALUE, false);
+
+                for (Map.Entry<String, Map<Long, Integer>> match : matches.entrySet()) {
+                    double weight = match.getKey().equals(queryToken) ? 1.0 : PREFIX_MATCH_WEIGHT;
+                    double idf = Math.log(1.0 + (double) documentCount / match.getValue().size());
+                    for (Map.Entry<Long, Integer> posting : match.getValue().entrySet()) {
+                        tokenScores.merge(posting.getKey(), weight * idf * posting.getValue(), Math::max);
+                    }
+                }
+
+                if (scores == null) {
+                    scores = tokenScores;
+                } else {
+                    scores.keySet().retainAll(tokenScores.keySet());
+                    for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                        entry.setValue(entry.getValue() + tokenScores.get(entry.getKey()));
+                    }
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+            if (scores == null) {
+                return List.of();
+            }
+
+            List<ScoredExpense> results = new ArrayList<>(scores.size());
+            for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+                IndexedExpense expense = documents.get(entry.getKey());
+                double score = entry.getValue() / Math.sqrt(Math.max(1, expense.tokenCount));
+                results.add(new ScoredExpense(expense, score));
+            }
+            results.sort(Comparator.comparingDouble(ScoredExpense::getScore).reversed()
+                    .thenComparing(scored -> scored.getExpense().getExpenseDate(), Comparator.reverseOrder())
+                    .thenComparing(scored -> scored.getExpense().getExpenseId(), Comparator.reverseOrder()));
+            return results.size() > limit ? new ArrayList<>(results.subList(0, limit)) : results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT);
+
+        List<String> tokens = new ArrayList<>();
+        for (String token : normalized.split("[^\\p{L}\\p{Nd}]+")) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+
+    public static class IndexedExpense {
+        private final Long expenseId;
+        private final String description;
+        private final BigDecimal amount;
+        private final String currency;
+        private final LocalDate expenseDate;
+        private int tokenCount;
+        private Set<String> distinctTerms = Set.of();
+
+        public IndexedExpense(Long expenseId, String description, BigDecimal amount, String currency,
+                              LocalDate expenseDate) {
+            this.expenseId = expenseId;
+            this.description = description;
+            this.amount = amount;
+            this.currency = currency;
+            this.expenseDate = expenseDate;
+        }
+
+        public Long getExpenseId() { return expenseId; }
+        public String getDescription() { return description; }
+        public BigDecimal getAmount() { return amount; }
+        public String getCurrency() { return currency; }
+        public LocalDate getExpenseDate() { return expenseDate; }
+    }
+
+    public static class ScoredExpense {
+        private final IndexedExpense expense;
+        private final double score;
+
+        public ScoredExpense(IndexedExpense expense, double score) {
+            this.expense = expense;
+            this.score = score;
+        }
+
+        public IndexedExpense getExpense() { return expense; }
+        public double getScore() { return score; }
+    }
+}
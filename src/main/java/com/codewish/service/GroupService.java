@@ -1,28 +1,65 @@
 package com.codewish.service;
 
+import com.codewish.event.MemberAddedEvent;
 import com.codewish.model.Group;
 import com.codewish.model.GroupMember;
 import com.codewish.model.User;
 import com.codewish.repository.GroupRepository;
 import com.codewish.repository.GroupMemberRepository;
+import com.codewish.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.List;
-import java.util.Optional;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class GroupService {
 
+    public static final int MAX_BULK_MEMBERS = 500;
+
+    // ON CONFLICT covers a concurrent add of the same user between the membership check and the insert
+    private static final String INSERT_MEMBER_SQL =
+            "INSERT INTO group_members (user_id, group_id, joined_date) VALUES (?, ?, ?) " +
+            "ON CONFLICT (user_id, group_id) DO NOTHING";
+
     @Autowired
     private GroupRepository groupRepository;
 
     @Autowired
     private GroupMemberRepository groupMemberRepository;
 
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Value("${codewish.currency.default-base-currency:INR}")
+    private String defaultBaseCurrency;
+
     @Transactional
-    public Group createGroup(String name, String description, Long createdBy) {
+    public Group createGroup(String name, String description, Long createdBy, String baseCurrency) {
         Group group = new Group(name, description, createdBy);
+        group.setBaseCurrency(resolveBaseCurrency(baseCurrency));
         Group savedGroup = groupRepository.save(group);
 
         // Add creator as group member
@@ -34,14 +71,28 @@ public class GroupService {
         return savedGroup;
     }
 
+    private String resolveBaseCurrency(String baseCurrency) {
+        if (baseCurrency == null || baseCurrency.isBlank()) {
+            return defaultBaseCurrency;
+        }
+        String code = baseCurrency.trim().toUpperCase();
+        if (!exchangeRateService.current().supports(code)) {
+            throw new RuntimeException("Unsupported currency: " + code);
+        }
+        return code;
+    }
+
+    @Transactional(readOnly = true)
     public Optional<Group> findById(Long id) {
         return groupRepository.findById(id);
     }
 
+    @Transactional(readOnly = true)
     public List<Group> findGroupsByUserId(Long userId) {
         return groupRepository.findGroupsByUserId(userId);
     }
 
+    @Transactional(readOnly = true)
     public List<Group> findGroupsCreatedByUser(Long userId) {
         return groupRepository.findByCreatedBy(userId);
     }
@@ -58,18 +109,168 @@ public class GroupService {
             user.setId(userId);
             GroupMember member = new GroupMember(user, groupOpt.get());
             groupMemberRepository.save(member);
+            eventPublisher.publishEvent(new MemberAddedEvent(groupId, userId));
             return true;
         }
         return false;
     }
 
+    // One IN query for the users, one for existing memberships and one JDBC batch for the inserts
+    @Transactional
+    public List<MemberAddResult> addUsersToGroup(Long groupId, Collection<String> usernames) {
+        Set<String> requested = new LinkedHashSet<>();
+        for (String username : usernames) {
+            if (username != null && !username.isBlank()) {
+                requested.add(username.trim());
+            }
+        }
+        if (requested.size() > MAX_BULK_MEMBERS) {
+            throw new RuntimeException("Cannot add more than " + MAX_BULK_MEMBERS + " members at once");
+        }
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+        if (requested.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Long> userIdsByUsername = new HashMap<>();
+        for (User user : userRepository.findByUsernameIn(requested)) {
+            userIdsByUsername.put(user.getUsername(), user.getId());
+        }
+        Set<Long> existingMembers = userIdsByUsername.isEmpty()
+                ? Collections.emptySet()
+                : new HashSet<>(groupMemberRepository.findMemberUserIds(groupId, userIdsByUsername.values()));
+
+        List<MemberAddResult> results = new ArrayList<>();
+        List<MemberAddResult> toInsert = new ArrayList<>();
+        for (String username : requested) {
+            Long userId = userIdsByUsername.get(username);
+            MemberAddResult result;
+            if (userId == null) {
+                result = new MemberAddResult(username, null, MemberAddStatus.NOT_FOUND);
+            } else if (existingMembers.contains(userId)) {
+                result = new MemberAddResult(username, userId, MemberAddStatus.ALREADY_MEMBER);
+            } else {
+                result = new MemberAddResult(username, userId, MemberAddStatus.ADDED);
+                toInsert.add(result);
+            }
+            results.add(result);
+        }
+
+        if (!toInsert.isEmpty()) {
+            Timestamp joinedDate = Timestamp.valueOf(LocalDateTime.now());
+            List<Object[]> batchArgs = new ArrayList<>();
+            for (MemberAddResult result : toInsert) {
+                batchArgs.add(new Object[]{result.getUserId(), groupId, joinedDate});
+            }
+            int[] counts = jdbcTemplate.batchUpdate(INSERT_MEMBER_SQL, batchArgs);
+            for (int i = 0; i < counts.length; i++) {
+                MemberAddResult result = toInsert.get(i);
+                if (counts[i] == 0) {
+                    result.status = MemberAddStatus.ALREADY_MEMBER;
+                } else {
+                    eventPublisher.publishEvent(new MemberAddedEvent(groupId, result.getUserId()));
+                }
+            }
+        }
+        return results;
+    }
+
+    @Transactional
+    public GroupBootstrapResult createGroupWithMembers(String name, String description, Long createdBy,
+                                                       String baseCurrency, Collection<String> usernames) {
+        Group group = createGroup(name, description, createdBy, baseCurrency);
+        return new GroupBootstrapResult(group.getId(), group.getName(), addUsersToGroup(group.getId(), usernames));
+    }
+
+    @Transactional(readOnly = true)
     public List<GroupMember> getGroupMembers(Long groupId) {
         return groupMemberRepository.findByGroupId(groupId);
     }
 
+    // Every API call checks membership, so member ids are cached per group and tagged with groups.version
+    @Transactional(readOnly = true)
+    public boolean isMember(Long groupId, Long userId) {
+        Cache cache = cacheManager.getCache(CacheInvalidationService.GROUP_MEMBERS_CACHE);
+        long knownVersion = cacheInvalidationService.getKnownGroupVersion(groupId);
+
+        MemberSnapshot snapshot = cache != null ? cache.get(groupId, MemberSnapshot.class) : null;
+        if (snapshot == null || snapshot.version < knownVersion) {
+            snapshot = loadMemberSnapshot(groupId);
+            if (snapshot == null) {
+                return false;
+            }
+            // A lagging replica can return an older version than we know exists; use it but do not cache it
+            if (cache != null && snapshot.version >= knownVersion) {
+                cache.put(groupId, snapshot);
+            }
+        }
+        return snapshot.userIds.contains(userId);
+    }
+
     @Transactional
     public void removeUserFromGroup(Long groupId, Long userId) {
         groupMemberRepository.deleteByUserIdAndGroupId(userId, groupId);
+        cacheInvalidationService.invalidateGroupMembers(groupId);
     }
-}
 
+    // Version and member ids come from one statement, so they describe the same snapshot
+    private MemberSnapshot loadMemberSnapshot(Long groupId) {
+        List<MemberSnapshot> rows = jdbcTemplate.query(
+                "SELECT g.version, ARRAY(SELECT gm.user_id FROM group_members gm WHERE gm.group_id = g.id) AS user_ids " +
+                "FROM groups g WHERE g.id = ?",
+                (rs, rowNum) -> new MemberSnapshot(rs.getLong("version"),
+                        new HashSet<>(Arrays.asList((Long[]) rs.getArray("user_ids").getArray()))),
+                groupId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    private static class MemberSnapshot {
+        final long version;
+        final Set<Long> userIds;
+
+        MemberSnapshot(long version, Set<Long> userIds) {
+            this.version = version;
+            this.userIds = userIds;
+        }
+    }
+
+    public enum MemberAddStatus {
+        ADDED, ALREADY_MEMBER, NOT_FOUND
+    }
+
+    public static class MemberAddResult {
+        private String username;
+        private Long userId;
+        private MemberAddStatus status;
+
+        public MemberAddResult(String username, Long userId, MemberAddStatus status) {
+            this.username = username;
+            this.userId = userId;
+            this.status = status;
+        }
+
+        // Getters
+        public String getUsername() { return username; }
+        public Long getUserId() { return userId; }
+        public MemberAddStatus getStatus() { return status; }
+    }
+
+    public static class GroupBootstrapResult {
+        private Long groupId;
+        private String name;
+        private List<MemberAddResult> members;
+
+        public GroupBootstrapResult(Long groupId, String name, List<MemberAddResult> members) {
+            this.groupId = groupId;
+            this.name = name;
+            this.members = members;
+        }
+
+        // Getters
+        public Long getGroupId() { return groupId; }
+        public String getName() { return name; }
+        public List<MemberAddResult> getMembers() { return members; }
+    }
+}
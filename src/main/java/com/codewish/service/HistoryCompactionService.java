@@ -0,0 +1,295 @@
+package com.codewish.service;
+
+import com.codewish.model.Expense;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+// Moves fully settled history out of the hot expense tables, leaving one opening-balance row per member
+@Service
+public class HistoryCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(HistoryCompactionService.class);
+
+    // Opening balances from the previous run come first whatever their id, so each run folds them into
+    // the new ones instead of leaving them behind the cutoff
+    private static final String HISTORY_SQL =
+            "SELECT e.id, e.paid_by_user_id, e.amount, e.expense_date, e.created_date, es.user_id, es.amount_owed " +
+            "FROM expenses e LEFT JOIN expense_splits es ON es.expense_id = e.id " +
+            "WHERE e.group_id = ? ORDER BY e.opening_balance DESC, e.id";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ExpenseSearchService expenseSearchService;
+
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Value("${codewish.compaction.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${codewish.compaction.min-expenses:100}")
+    private int minExpenses;
+
+    // Largest leftover balance (rounding cents) that still counts as settled
+    @Value("${codewish.compaction.settled-tolerance:0.05}")
+    private BigDecimal settledTolerance;
+
+    @Value("${codewish.compaction.groups-per-run:500}")
+    private int groupsPerRun;
+
+    @Scheduled(cron = "${codewish.compaction.cron:-}")
+    public void compactAllGroups() {
+        long lastGroupId = 0;
+        int compacted = 0;
+        while (true) {
+            List<Long> groupIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM groups WHERE id > ? ORDER BY id LIMIT ?", Long.class, lastGroupId, groupsPerRun);
+            if (groupIds.isEmpty()) {
+                break;
+            }
+            for (Long groupId : groupIds) {
+                if (compactGroup(groupId) > 0) {
+                    compacted++;
+                }
+            }
+            lastGroupId = groupIds.get(groupIds.size() - 1);
+        }
+        log.info("History compaction archived settled history for {} groups", compacted);
+    }
+
+    // Returns the number of expenses archived
+    public int compactGroup(Long groupId) {
+        Integer archived = transactionTemplate.execute(status -> compactGroupInTransaction(groupId));
+        if (archived != null && archived > 0) {
+            expenseSearchService.evictGroup(groupId);
+        }
+        return archived == null ? 0 : archived;
+    }
+
+    private int compactGroupInTransaction(Long groupId) {
+        // Expense edits and deletes take the same lock, so the scanned history cannot change underneath us
+        jdbcTemplate.queryForList("SELECT id FROM groups WHERE id = ? FOR UPDATE", Long.class, groupId);
+
+        // The scanner and the archive tables assume one currency, so multi-currency groups stay uncompacted
+        Boolean multiCurrency = jdbcTemplate.queryForObject(
+                "SELECT EXISTS (SELECT 1 FROM expenses WHERE group_id = ? AND currency IS NOT NULL)",
+                Boolean.class, groupId);
+        if (Boolean.TRUE.equals(multiCurrency)) {
+            return 0;
+        }
+
+        SettledPrefixScanner scanner = new SettledPrefixScanner(
+                LocalDateTime.now().minusDays(minAgeDays), settledTolerance);
+        jdbcTemplate.query(HISTORY_SQL, scanner, groupId);
+
+        List<Long> expenseIds = scanner.getSettledExpenseIds();
+        if (expenseIds.size() < minExpenses) {
+            return 0;
+        }
+
+        // Ids are listed explicitly so an in-flight insert with a lower id is never moved unseen
+        Long[] ids = expenseIds.toArray(new Long[0]);
+        jdbcTemplate.update(
+                "INSERT INTO archived_expenses (id, group_id, description, amount, paid_by_user_id, expense_date, " +
+                "created_date, opening_balance) " +
+                "SELECT id, group_id, description, amount, paid_by_user_id, expense_date, created_date, opening_balance " +
+                "FROM expenses WHERE group_id = ? AND id = ANY(?)", groupId, ids);
+        jdbcTemplate.update(
+                "INSERT INTO archived_expense_splits (id, expense_id, group_id, user_id, amount_owed) " +
+                "SELECT id, expense_id, group_id, user_id, amount_owed FROM expense_splits WHERE expense_id = ANY(?)",
+                (Object) ids);
+        jdbcTemplate.update("DELETE FROM expenses WHERE group_id = ? AND id = ANY(?)", groupId, ids);
+
+        insertOpeningBalances(groupId, scanner.getSettledBalances(), scanner.getLastSettledDate());
+        cacheInvalidationService.invalidateGroupExpenses(groupId);
+        return ids.length;
+    }
+
+    private void insertOpeningBalances(Long groupId, Map<Long, BigDecimal> balances, LocalDate expenseDate) {
+        List<Map.Entry<Long, BigDecimal>> nonZero = new ArrayList<>();
+        for (Map.Entry<Long, BigDecimal> entry : balances.entrySet()) {
+            if (entry.getValue().signum() != 0) {
+                nonZero.add(entry);
+            }
+        }
+        if (nonZero.isEmpty()) {
+            return;
+        }
+
+        List<Long> expenseIds = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('expenses', 'id')) FROM generate_series(1, ?)",
+                Long.class, nonZero.size());
+
+        // Balance = paid - owed: a creditor "paid" its balance, a debtor "owes" it.
+        // Dated at the compaction boundary so they sort before every expense still in the live table
+        Timestamp boundary = Timestamp.valueOf(expenseDate.atStartOfDay());
+        List<Object[]> expenseRows = new ArrayList<>();
+        List<Object[]> splitRows = new ArrayList<>();
+        for (int i = 0; i < nonZero.size(); i++) {
+            Long userId = nonZero.get(i).getKey();
+            BigDecimal balance = nonZero.get(i).getValue();
+            Long expenseId = expenseIds.get(i);
+
+            expenseRows.add(new Object[]{expenseId, groupId, Expense.OPENING_BALANCE_DESCRIPTION,
+                    balance.max(BigDecimal.ZERO), userId, Date.valueOf(expenseDate), boundary});
+            if (balance.signum() < 0) {
+                splitRows.add(new Object[]{expenseId, groupId, userId, balance.negate()});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expenses (id, group_id, description, amount, paid_by_user_id, expense_date, created_date, " +
+                "opening_balance) VALUES (?, ?, ?, ?, ?, ?, ?, TRUE)", expenseRows);
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO expense_splits (expense_id, group_id, user_id, amount_owed) VALUES (?, ?, ?, ?)", splitRows);
+    }
+
+    @Transactional(readOnly = true)
+    public List<ArchivedExpense> getArchivedExpenses(Long groupId, Long beforeId, int limit) {
+        List<ArchivedExpense> expenses = jdbcTemplate.query(
+                "SELECT id, description, amount, paid_by_user_id, expense_date FROM archived_expenses " +
+                "WHERE group_id = ? AND id < ? ORDER BY id DESC LIMIT ?",
+                (rs, rowNum) -> new ArchivedExpense(rs.getLong("id"), rs.getString("description"),
+                        rs.getBigDecimal("amount"), rs.getLong("paid_by_user_id"),
+                        rs.getDate("expense_date").toLocalDate()),
+                groupId, beforeId != null ? beforeId : Long.MAX_VALUE, limit);
+        if (expenses.isEmpty()) {
+            return expenses;
+        }
+
+        Map<Long, ArchivedExpense> byId = new HashMap<>();
+        for (ArchivedExpense expense : expenses) {
+            byId.put(expense.getId(), expense);
+        }
+        jdbcTemplate.query("SELECT expense_id, user_id, amount_owed FROM archived_expense_splits WHERE expense_id = ANY(?)",
+                rs -> {
+                    byId.get(rs.getLong("expense_id")).getSplits().put(rs.getLong("user_id"), rs.getBigDecimal("amount_owed"));
+                },
+                (Object) byId.keySet().toArray(new Long[0]));
+        return expenses;
+    }
+
+    // Walks history in HISTORY_SQL order and remembers the last point where every member was settled
+    private static class SettledPrefixScanner implements RowCallbackHandler {
+        private final LocalDateTime createdBefore;
+        private final BigDecimal tolerance;
+        private final Map<Long, BigDecimal> balances = new HashMap<>();
+        private final List<Long> scannedIds = new ArrayList<>();
+
+        private boolean stopped;
+        private Long currentExpenseId;
+        private LocalDate currentExpenseDate;
+        private int settledCount;
+        private Map<Long, BigDecimal> settledBalances = Map.of();
+        private LocalDate lastSettledDate;
+
+        SettledPrefixScanner(LocalDateTime createdBefore, BigDecimal tolerance) {
+            this.createdBefore = createdBefore;
+            this.tolerance = tolerance;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (stopped) {
+                return;
+            }
+
+            long expenseId = rs.getLong("id");
+            if (currentExpenseId == null || currentExpenseId != expenseId) {
+                finishExpense();
+
+                Timestamp createdDate = rs.getTimestamp("created_date");
+                if (createdDate == null || !createdDate.toLocalDateTime().isBefore(createdBefore)) {
+                    stopped = true;
+                    currentExpenseId = null;
+                    return;
+                }
+
+                currentExpenseId = expenseId;
+                currentExpenseDate = rs.getDate("expense_date").toLocalDate();
+                scannedIds.add(expenseId);
+                balances.merge(rs.getLong("paid_by_user_id"), rs.getBigDecimal("amount"), BigDecimal::add);
+            }
+
+            long splitUserId = rs.getLong("user_id");
+            if (!rs.wasNull()) {
+                balances.merge(splitUserId, rs.getBigDecimal("amount_owed").negate(), BigDecimal::add);
+            }
+        }
+
+        private void finishExpense() {
+            if (currentExpenseId == null) {
+                return;
+            }
+            for (BigDecimal balance : balances.values()) {
+                if (balance.abs().compareTo(tolerance) > 0) {
+                    return;
+                }
+            }
+            settledCount = scannedIds.size();
+            settledBalances = new HashMap<>(balances);
+            lastSettledDate = currentExpenseDate;
+        }
+
+        List<Long> getSettledExpenseIds() {
+            finishExpense();
+            currentExpenseId = null;
+            return scannedIds.subList(0, settledCount);
+        }
+
+        Map<Long, BigDecimal> getSettledBalances() {
+            return settledBalances;
+        }
+
+        LocalDate getLastSettledDate() {
+            return lastSettledDate;
+        }
+    }
+
+    // Inner class for archived expense detail
+    public static class ArchivedExpense {
+        private Long id;
+        private String description;
+        private BigDecimal amount;
+        private Long paidByUserId;
+        private LocalDate expenseDate;
+        private Map<Long, BigDecimal> splits = new HashMap<>();
+
+        public ArchivedExpense(Long id, String description, BigDecimal amount, Long paidByUserId, LocalDate expenseDate) {
+            this.id = id;
+            this.description = description;
+            this.amount = amount;
+            this.paidByUserId = paidByUserId;
+            this.expenseDate = expenseDate;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public String getDescription() { return description; }
+        public BigDecimal getAmount() { return amount; }
+        public Long getPaidByUserId() { return paidByUserId; }
+        public LocalDate getExpenseDate() { return expenseDate; }
+        public Map<Long, BigDecimal> getSplits() { return splits; }
+    }
+}
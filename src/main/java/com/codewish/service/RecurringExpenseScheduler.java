@@ -0,0 +1,27 @@
+package com.codewish.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import java.time.LocalDate;
+
+@Component
+@ConditionalOnProperty(prefix = "codewish.recurring", name = "scheduler-enabled", havingValue = "true", matchIfMissing = true)
+public class RecurringExpenseScheduler {
+
+    private static final Logger log = LoggerFactory.getLogger(RecurringExpenseScheduler.class);
+
+    @Autowired
+    private RecurringExpenseService recurringExpenseService;
+
+    @Scheduled(cron = "${codewish.recurring.cron:0 */5 * * * *}")
+    public void generateDueExpenses() {
+        int generated = recurringExpenseService.generateDueExpenses(LocalDate.now());
+        if (generated > 0) {
+            log.info("Generated {} recurring expenses", generated);
+        }
+    }
+}
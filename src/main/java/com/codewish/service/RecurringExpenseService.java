@@ -0,0 +1,298 @@
+package com.codewish.service;
+
+import com.codewish.event.ExpenseCreatedEvent;
+import com.codewish.model.RecurringExpense;
+import com.codewish.repository.GroupRepository;
+import com.codewish.repository.RecurringExpenseRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.sql.Array;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+@Service
+public class RecurringExpenseService {
+
+    // SKIP LOCKED lets several nodes run the scheduler without claiming the same template
+    private static final String CLAIM_DUE_SQL =
+            "SELECT id, group_id, description, amount, paid_by_user_id, participant_ids, frequency, " +
+            "interval_count, start_date, end_date, occurrence_count, " +
+            "(SELECT g.base_currency FROM groups g WHERE g.id = recurring_expenses.group_id) AS base_currency " +
+            "FROM recurring_expenses " +
+            "WHERE active AND next_run_date <= ? AND NOT (id = ANY(?)) " +
+            "ORDER BY next_run_date LIMIT ? FOR UPDATE SKIP LOCKED";
+
+    private static final String INSERT_EXPENSE_SQL =
+            "INSERT INTO expenses (id, group_id, description, amount, paid_by_user_id, expense_date, created_date) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String INSERT_SPLIT_SQL =
+            "INSERT INTO expense_splits (expense_id, group_id, user_id, amount_owed) VALUES (?, ?, ?, ?)";
+
+    private static final String ADVANCE_TEMPLATE_SQL =
+            "UPDATE recurring_expenses SET next_run_date = ?, occurrence_count = ?, active = ? WHERE id = ?";
+
+    @Autowired
+    private RecurringExpenseRepository recurringExpenseRepository;
+
+    @Autowired
+    private GroupRepository groupRepository;
+
+    @Autowired
+    private GroupService groupService;
+
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${codewish.recurring.batch-size:100}")
+    private int batchSize;
+
+    @Value("${codewish.recurring.max-catch-up-occurrences:400}")
+    private int maxCatchUpOccurrences;
+
+    @Transactional
+    public RecurringExpense createRecurringExpense(Long groupId, String description, BigDecimal amount,
+                                                   Long paidByUserId, RecurringExpense.Frequency frequency,
+                                                   int intervalCount, LocalDate startDate, LocalDate endDate,
+                                                   List<Long> participantIds, Long createdBy) {
+        if (!groupRepository.existsById(groupId)) {
+            throw new RuntimeException("Group not found");
+        }
+        if (amount == null || amount.compareTo(BigDecimal.ZERO) <= 0) {
+            throw new RuntimeException("Amount must be positive");
+        }
+        if (intervalCount < 1) {
+            throw new RuntimeException("Interval must be at least 1");
+        }
+        if (endDate != null && endDate.isBefore(startDate)) {
+            throw new RuntimeException("End date must not be before start date");
+        }
+        if (!groupService.isMember(groupId, paidByUserId)) {
+            throw new RuntimeException("Payer is not a member of this group");
+        }
+        if (participantIds != null) {
+            for (Long participantId : participantIds) {
+                if (!groupService.isMember(groupId, participantId)) {
+                    throw new RuntimeException("Participant " + participantId + " is not a member of this group");
+                }
+            }
+        }
+
+        RecurringExpense recurringExpense = new RecurringExpense();
+        recurringExpense.setGroupId(groupId);
+        recurringExpense.setDescription(description);
+        recurringExpense.setAmount(amount);
+        recurringExpense.setPaidByUserId(paidByUserId);
+        recurringExpense.setFrequency(frequency);
+        recurringExpense.setIntervalCount(intervalCount);
+        recurringExpense.setStartDate(startDate);
+        recurringExpense.setEndDate(endDate);
+        recurringExpense.setNextRunDate(startDate);
+        recurringExpense.setCreatedBy(createdBy);
+        if (participantIds != null && !participantIds.isEmpty()) {
+            recurringExpense.setParticipantIds(participantIds.toArray(new Long[0]));
+        }
+        return recurringExpenseRepository.save(recurringExpense);
+    }
+
+    @Transactional(readOnly = true)
+    public List<RecurringExpense> getGroupRecurringExpenses(Long groupId) {
+        return recurringExpenseRepository.findByGroupIdAndActiveTrueOrderByNextRunDate(groupId);
+    }
+
+    @Transactional
+    public boolean deactivate(Long groupId, Long recurringExpenseId) {
+        Optional<RecurringExpense> recurringOpt = recurringExpenseRepository.findById(recurringExpenseId);
+        if (!recurringOpt.isPresent() || !recurringOpt.get().getGroupId().equals(groupId)) {
+            return false;
+        }
+        recurringOpt.get().setActive(false);
+        return true;
+    }
+
+    // Generates every occurrence due up to and including today, one claimed batch per transaction.
+    // A template is claimed at most once per run, so a capped catch-up resumes on the next run.
+    public int generateDueExpenses(LocalDate today) {
+        int generated = 0;
+        Set<Long> processed = new HashSet<>();
+        while (true) {
+            int[] result = transactionTemplate.execute(status -> generateBatch(today, processed));
+            generated += result[1];
+            if (result[0] < batchSize) {
+                return generated;
+            }
+        }
+    }
+
+    // Returns {templates claimed, expenses generated}
+    private int[] generateBatch(LocalDate today, Set<Long> processed) {
+        List<DueTemplate> due = jdbcTemplate.query(CLAIM_DUE_SQL, (rs, rowNum) -> {
+            DueTemplate template = new DueTemplate();
+            template.id = rs.getLong("id");
+            template.groupId = rs.getLong("group_id");
+            template.description = rs.getString("description");
+            template.amount = rs.getBigDecimal("amount");
+            template.baseCurrency = rs.getString("base_currency");
+            template.paidByUserId = rs.getLong("paid_by_user_id");
+            Array participants = rs.getArray("participant_ids");
+            template.participantIds = participants != null ? Arrays.asList((Long[]) participants.getArray()) : null;
+            template.frequency = RecurringExpense.Frequency.valueOf(rs.getString("frequency"));
+            template.intervalCount = rs.getInt("interval_count");
+            template.startDate = rs.getDate("start_date").toLocalDate();
+            Date endDate = rs.getDate("end_date");
+            template.endDate = endDate != null ? endDate.toLocalDate() : null;
+            template.occurrenceCount = rs.getInt("occurrence_count");
+            return template;
+        }, Date.valueOf(today), processed.toArray(new Long[0]), batchSize);
+        if (due.isEmpty()) {
+            return new int[]{0, 0};
+        }
+
+        Map<Long, List<Long>> membersByGroup = loadMembersForTemplatesWithoutParticipants(due);
+
+        List<Occurrence> occurrences = new ArrayList<>();
+        List<Object[]> templateUpdates = new ArrayList<>(due.size());
+        for (DueTemplate template : due) {
+            List<Long> participants = template.participantIds != null
+                    ? template.participantIds : membersByGroup.getOrDefault(template.groupId, List.of());
+
+            int occurrence = template.occurrenceCount;
+            int generatedForTemplate = 0;
+            LocalDate date = template.occurrenceDate(occurrence);
+            while (!date.isAfter(today) && !template.isPastEnd(date) && generatedForTemplate < maxCatchUpOccurrences) {
+                if (!participants.isEmpty()) {
+                    occurrences.add(new Occurrence(template, date, participants));
+                }
+                occurrence++;
+                generatedForTemplate++;
+                date = template.occurrenceDate(occurrence);
+            }
+
+            templateUpdates.add(new Object[]{Date.valueOf(date), occurrence, !template.isPastEnd(date), template.id});
+        }
+
+        insertOccurrences(occurrences);
+        jdbcTemplate.batchUpdate(ADVANCE_TEMPLATE_SQL, templateUpdates);
+        due.forEach(template -> processed.add(template.id));
+        return new int[]{due.size(), occurrences.size()};
+    }
+
+    private Map<Long, List<Long>> loadMembersForTemplatesWithoutParticipants(List<DueTemplate> due) {
+        Set<Long> groupIds = new TreeSet<>();
+        for (DueTemplate template : due) {
+            if (template.participantIds == null) {
+                groupIds.add(template.groupId);
+            }
+        }
+
+        Map<Long, List<Long>> membersByGroup = new HashMap<>();
+        if (groupIds.isEmpty()) {
+            return membersByGroup;
+        }
+        jdbcTemplate.query("SELECT group_id, user_id FROM group_members WHERE group_id = ANY(?) ORDER BY group_id, user_id",
+                rs -> {
+                    membersByGroup.computeIfAbsent(rs.getLong("group_id"), id -> new ArrayList<>()).add(rs.getLong("user_id"));
+                },
+                (Object) groupIds.toArray(new Long[0]));
+        return membersByGroup;
+    }
+
+    private void insertOccurrences(List<Occurrence> occurrences) {
+        if (occurrences.isEmpty()) {
+            return;
+        }
+
+        // Reserve all expense ids up front so expenses and splits can both be sent as single batches
+        List<Long> expenseIds = jdbcTemplate.queryForList(
+                "SELECT nextval(pg_get_serial_sequence('expenses', 'id')) FROM generate_series(1, ?)",
+                Long.class, occurrences.size());
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> expenseRows = new ArrayList<>(occurrences.size());
+        List<Object[]> splitRows = new ArrayList<>();
+        List<SpendingAnalyticsService.RollupEntry> rollupEntries = new ArrayList<>(occurrences.size());
+        List<ExpenseCreatedEvent> events = new ArrayList<>(occurrences.size());
+
+        for (int i = 0; i < occurrences.size(); i++) {
+            Occurrence occurrence = occurrences.get(i);
+            DueTemplate template = occurrence.template;
+            Long expenseId = expenseIds.get(i);
+
+            expenseRows.add(new Object[]{expenseId, template.groupId, template.description, template.amount,
+                    template.paidByUserId, Date.valueOf(occurrence.date), now});
+
+            BigDecimal splitAmount = template.amount.divide(
+                    new BigDecimal(occurrence.participants.size()), 2, RoundingMode.HALF_UP);
+            Map<Long, BigDecimal> owedByUser = new HashMap<>();
+            for (Long participantId : occurrence.participants) {
+                splitRows.add(new Object[]{expenseId, template.groupId, participantId, splitAmount});
+                owedByUser.put(participantId, splitAmount);
+            }
+
+            rollupEntries.add(new SpendingAnalyticsService.RollupEntry(template.groupId, template.paidByUserId,
+                    template.amount, occurrence.date, owedByUser, false));
+            events.add(new ExpenseCreatedEvent(template.groupId, expenseId, template.description, template.amount,
+                    template.baseCurrency, template.paidByUserId, occurrence.date, false, owedByUser));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_EXPENSE_SQL, expenseRows);
+        jdbcTemplate.batchUpdate(INSERT_SPLIT_SQL, splitRows);
+        spendingAnalyticsService.recordExpenses(rollupEntries);
+        events.forEach(eventPublisher::publishEvent);
+    }
+
+    private static class DueTemplate {
+        Long id;
+        Long groupId;
+        String description;
+        BigDecimal amount;
+        // Recurring expenses are always in the group's base currency
+        String baseCurrency;
+        Long paidByUserId;
+        List<Long> participantIds;
+        RecurringExpense.Frequency frequency;
+        int intervalCount;
+        LocalDate startDate;
+        LocalDate endDate;
+        int occurrenceCount;
+
+        LocalDate occurrenceDate(int occurrence) {
+            return RecurringExpense.occurrenceDate(startDate, frequency, intervalCount, occurrence);
+        }
+
+        boolean isPastEnd(LocalDate date) {
+            return endDate != null && date.isAfter(endDate);
+        }
+    }
+
+    private static class Occurrence {
+        final DueTemplate template;
+        final LocalDate date;
+        final List<Long> participants;
+
+        Occurrence(DueTemplate template, LocalDate date, List<Long> participants) {
+            this.template = template;
+            this.date = date;
+            this.participants = participants;
+        }
+    }
+}
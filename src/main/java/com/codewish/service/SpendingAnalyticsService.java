@@ -0,0 +1,261 @@
+package com.codewish.service;
+
+import com.codewish.model.Expense;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+
+@Service
+public class SpendingAnalyticsService {
+
+    // Namespace for the per-group advisory lock shared by incremental writers and the backfill
+    private static final int ROLLUP_LOCK_NAMESPACE = 28001;
+
+    private static final String UPSERT_ROLLUP_SQL =
+            "INSERT INTO spending_rollups (group_id, user_id, month, total_paid, total_owed, " +
+            "settlements_paid, settlements_received) VALUES (?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (group_id, month, user_id) DO UPDATE SET " +
+            "total_paid = spending_rollups.total_paid + EXCLUDED.total_paid, " +
+            "total_owed = spending_rollups.total_owed + EXCLUDED.total_owed, " +
+            "settlements_paid = spending_rollups.settlements_paid + EXCLUDED.settlements_paid, " +
+            "settlements_received = spending_rollups.settlements_received + EXCLUDED.settlements_received";
+
+    // Archived history still counts towards spending; opening-balance rows only carry balances forward
+    private static final String REBUILD_GROUP_SQL =
+            "WITH all_expenses AS (" +
+            // fx is the rate stored when the expense was recorded; NULL (and anything archived) is already base
+            "  SELECT x.id, x.paid_by_user_id, x.amount, x.description, x.expense_date, COALESCE(x.fx_rate, 1) AS fx" +
+            "  FROM expenses x" +
+            "  WHERE x.group_id = ? AND NOT x.opening_balance" +
+            "  UNION ALL" +
+            "  SELECT id, paid_by_user_id, amount, description, expense_date, 1 FROM archived_expenses" +
+            "  WHERE group_id = ? AND NOT opening_balance" +
+            "), all_splits AS (" +
+            "  SELECT expense_id, user_id, amount_owed FROM expense_splits WHERE group_id = ?" +
+            "  UNION ALL" +
+            "  SELECT expense_id, user_id, amount_owed FROM archived_expense_splits WHERE group_id = ?" +
+            ") " +
+            "INSERT INTO spending_rollups (group_id, user_id, month, total_paid, total_owed, " +
+            "settlements_paid, settlements_received) " +
+            "SELECT ?, user_id, month, SUM(paid), SUM(owed), SUM(settled_out), SUM(settled_in) FROM (" +
+            "  SELECT e.paid_by_user_id AS user_id, CAST(date_trunc('month', e.expense_date) AS DATE) AS month," +
+            "    CASE WHEN e.description = '" + Expense.SETTLEMENT_DESCRIPTION + "' THEN 0 ELSE ROUND(e.amount * e.fx, 2) END AS paid," +
+            "    0 AS owed," +
+            "    CASE WHEN e.description = '" + Expense.SETTLEMENT_DESCRIPTION + "' THEN ROUND(e.amount * e.fx, 2) ELSE 0 END AS settled_out," +
+            "    0 AS settled_in" +
+            "  FROM all_expenses e" +
+            "  UNION ALL" +
+            "  SELECT es.user_id, CAST(date_trunc('month', e.expense_date) AS DATE), 0," +
+            "    CASE WHEN e.description = '" + Expense.SETTLEMENT_DESCRIPTION + "' THEN 0 ELSE ROUND(es.amount_owed * e.fx, 2) END, 0," +
+            "    CASE WHEN e.description = '" + Expense.SETTLEMENT_DESCRIPTION + "' THEN ROUND(es.amount_owed * e.fx, 2) ELSE 0 END" +
+            "  FROM all_splits es JOIN all_expenses e ON e.id = es.expense_id" +
+            ") t GROUP BY user_id, month";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Applies one expense (or settlement) to the rollups inside the caller's transaction
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpense(Long groupId, Long paidByUserId, BigDecimal amount, LocalDate expenseDate,
+                              Map<Long, BigDecimal> owedByUser, boolean settlement) {
+        applyExpenses(List.of(new RollupEntry(groupId, paidByUserId, amount, expenseDate, owedByUser, settlement)),
+                BigDecimal.ONE);
+    }
+
+    // Applies many expenses with a single batched upsert
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordExpenses(List<RollupEntry> entries) {
+        applyExpenses(entries, BigDecimal.ONE);
+    }
+
+    // Reverses a previously recorded expense, e.g. when it is edited or deleted
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void reverseExpense(Long groupId, Long paidByUserId, BigDecimal amount, LocalDate expenseDate,
+                               Map<Long, BigDecimal> owedByUser, boolean settlement) {
+        applyExpenses(List.of(new RollupEntry(groupId, paidByUserId, amount, expenseDate, owedByUser, settlement)),
+                BigDecimal.ONE.negate());
+    }
+
+    private void applyExpenses(List<RollupEntry> entries, BigDecimal sign) {
+        if (entries.isEmpty()) {
+            return;
+        }
+
+        // Sorted so concurrent writers always lock rollup rows in the same order
+        Map<RollupKey, BigDecimal[]> deltas = new TreeMap<>();
+        for (RollupEntry entry : entries) {
+            LocalDate month = entry.expenseDate.withDayOfMonth(1);
+
+            BigDecimal[] paid = deltas.computeIfAbsent(
+                    new RollupKey(entry.groupId, month, entry.paidByUserId), key -> zeroDelta());
+            int paidColumn = entry.settlement ? 2 : 0;
+            paid[paidColumn] = paid[paidColumn].add(entry.amount.multiply(sign));
+
+            int owedColumn = entry.settlement ? 3 : 1;
+            for (Map.Entry<Long, BigDecimal> owed : entry.owedByUser.entrySet()) {
+                BigDecimal[] delta = deltas.computeIfAbsent(
+                        new RollupKey(entry.groupId, month, owed.getKey()), key -> zeroDelta());
+                delta[owedColumn] = delta[owedColumn].add(owed.getValue().multiply(sign));
+            }
+        }
+
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        Set<Long> groupIds = new TreeSet<>();
+        for (Map.Entry<RollupKey, BigDecimal[]> entry : deltas.entrySet()) {
+            RollupKey key = entry.getKey();
+            BigDecimal[] delta = entry.getValue();
+            batch.add(new Object[]{key.groupId, key.userId, Date.valueOf(key.month),
+                    delta[0], delta[1], delta[2], delta[3]});
+            groupIds.add(key.groupId);
+        }
+
+        for (Long groupId : groupIds) {
+            lockGroup(groupId, true);
+        }
+        jdbcTemplate.batchUpdate(UPSERT_ROLLUP_SQL, batch);
+    }
+
+    @Transactional(readOnly = true)
+    public List<MonthlySpending> getGroupMonthlySpending(Long groupId, YearMonth from, YearMonth to) {
+        return jdbcTemplate.query(
+                "SELECT r.user_id, u.username, r.month, r.total_paid, r.total_owed, r.settlements_paid, " +
+                "r.settlements_received FROM spending_rollups r JOIN users u ON u.id = r.user_id " +
+                "WHERE r.group_id = ? AND r.month BETWEEN ? AND ? ORDER BY r.month, u.username",
+                (rs, rowNum) -> new MonthlySpending(
+                        rs.getLong("user_id"),
+                        rs.getString("username"),
+                        YearMonth.from(rs.getDate("month").toLocalDate()),
+                        rs.getBigDecimal("total_paid"),
+                        rs.getBigDecimal("total_owed"),
+                        rs.getBigDecimal("settlements_paid"),
+                        rs.getBigDecimal("settlements_received")),
+                groupId, Date.valueOf(from.atDay(1)), Date.valueOf(to.atDay(1)));
+    }
+
+    // Rebuilds rollups for existing data, a few groups per short transaction
+    public int backfill(int groupsPerChunk) {
+        int rebuilt = 0;
+        long lastGroupId = 0;
+        while (true) {
+            List<Long> groupIds = jdbcTemplate.queryForList(
+                    "SELECT id FROM groups WHERE id > ? ORDER BY id LIMIT ?", Long.class, lastGroupId, groupsPerChunk);
+            if (groupIds.isEmpty()) {
+                return rebuilt;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                for (Long groupId : groupIds) {
+                    lockGroup(groupId, false);
+                    jdbcTemplate.update("DELETE FROM spending_rollups WHERE group_id = ?", groupId);
+                    jdbcTemplate.update(REBUILD_GROUP_SQL, groupId, groupId, groupId, groupId, groupId);
+                }
+            });
+
+            rebuilt += groupIds.size();
+            lastGroupId = groupIds.get(groupIds.size() - 1);
+        }
+    }
+
+    private void lockGroup(Long groupId, boolean shared) {
+        String function = shared ? "pg_advisory_xact_lock_shared" : "pg_advisory_xact_lock";
+        jdbcTemplate.query("SELECT " + function + "(?, CAST(? % 2147483647 AS INTEGER))",
+                rs -> { }, ROLLUP_LOCK_NAMESPACE, groupId);
+    }
+
+    private static BigDecimal[] zeroDelta() {
+        return new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO};
+    }
+
+    // One expense as seen by the rollups
+    public static class RollupEntry {
+        private final Long groupId;
+        private final Long paidByUserId;
+        private final BigDecimal amount;
+        private final LocalDate expenseDate;
+        private final Map<Long, BigDecimal> owedByUser;
+        private final boolean settlement;
+
+        public RollupEntry(Long groupId, Long paidByUserId, BigDecimal amount, LocalDate expenseDate,
+                           Map<Long, BigDecimal> owedByUser, boolean settlement) {
+            this.groupId = groupId;
+            this.paidByUserId = paidByUserId;
+            this.amount = amount;
+            this.expenseDate = expenseDate;
+            this.owedByUser = owedByUser;
+            this.settlement = settlement;
+        }
+    }
+
+    private static class RollupKey implements Comparable<RollupKey> {
+        private final Long groupId;
+        private final LocalDate month;
+        private final Long userId;
+
+        RollupKey(Long groupId, LocalDate month, Long userId) {
+            this.groupId = groupId;
+            this.month = month;
+            this.userId = userId;
+        }
+
+        @Override
+        public int compareTo(RollupKey other) {
+            int result = groupId.compareTo(other.groupId);
+            if (result == 0) {
+                result = month.compareTo(other.month);
+            }
+            return result != 0 ? result : userId.compareTo(other.userId);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RollupKey other && compareTo(other) == 0;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(groupId, month, userId);
+        }
+    }
+
+    // Inner class for one member's totals in one month
+    public static class MonthlySpending {
+        private Long userId;
+        private String username;
+        private YearMonth month;
+        private BigDecimal totalPaid;
+        private BigDecimal totalOwed;
+        private BigDecimal settlementsPaid;
+        private BigDecimal settlementsReceived;
+
+        public MonthlySpending(Long userId, String username, YearMonth month, BigDecimal totalPaid,
+                               BigDecimal totalOwed, BigDecimal settlementsPaid, BigDecimal settlementsReceived) {
+            this.userId = userId;
+            this.username = username;
+            this.month = month;
+            this.totalPaid = totalPaid;
+            this.totalOwed = totalOwed;
+            this.settlementsPaid = settlementsPaid;
+            this.settlementsReceived = settlementsReceived;
+        }
+
+        // Getters
+        public Long getUserId() { return userId; }
+        public String getUsername() { return username; }
+        public YearMonth getMonth() { return month; }
+        public BigDecimal getTotalPaid() { return totalPaid; }
+        public BigDecimal getTotalOwed() { return totalOwed; }
+        public BigDecimal getSettlementsPaid() { return settlementsPaid; }
+        public BigDecimal getSettlementsReceived() { return settlementsReceived; }
+    }
+}
@@ -0,0 +1,38 @@
+package com.codewish.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+// Builds spending rollups for data written before they existed; runs in the background on startup
+@Component
+@ConditionalOnProperty(prefix = "codewish.analytics", name = "backfill-on-startup", havingValue = "true")
+public class SpendingRollupBackfillRunner implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(SpendingRollupBackfillRunner.class);
+
+    @Autowired
+    private SpendingAnalyticsService spendingAnalyticsService;
+
+    @Value("${codewish.analytics.backfill-groups-per-chunk:50}")
+    private int groupsPerChunk;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Thread backfill = new Thread(() -> {
+            try {
+                int groups = spendingAnalyticsService.backfill(groupsPerChunk);
+                log.info("Spending rollup backfill finished for {} groups", groups);
+            } catch (RuntimeException e) {
+                log.error("Spending rollup backfill failed", e);
+            }
+        }, "spending-rollup-backfill");
+        backfill.setDaemon(true);
+        backfill.start();
+    }
+}
@@ -3,7 +3,9 @@ package com.codewish.service;
 import com.codewish.model.User;
 import com.codewish.repository.UserRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import java.util.List;
 import java.util.Optional;
 
@@ -13,34 +15,57 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CacheInvalidationService cacheInvalidationService;
+
+    @Transactional
     public User saveUser(User user) {
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        cacheInvalidationService.invalidateUser(savedUser.getId());
+        return savedUser;
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
         return userRepository.findByUsername(username);
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
         return userRepository.findByEmail(email);
     }
 
+    @Transactional(readOnly = true)
     public Optional<User> findById(Long id) {
         return userRepository.findById(id);
     }
 
+    // Group pages look up the payer of every expense row. Only the display fields are cached,
+    // never the entity with its password
+    @Cacheable(cacheNames = CacheInvalidationService.USERS_CACHE, unless = "#result == null")
+    @Transactional(readOnly = true)
+    public UserSummary findSummaryById(Long id) {
+        return userRepository.findById(id)
+                .map(user -> new UserSummary(user.getId(), user.getUsername(), user.getEmail()))
+                .orElse(null);
+    }
+
+    @Transactional(readOnly = true)
     public boolean existsByUsername(String username) {
         return userRepository.existsByUsername(username);
     }
 
+    @Transactional(readOnly = true)
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
 
+    @Transactional(readOnly = true)
     public List<User> findAllUsers() {
         return userRepository.findAll();
     }
 
+    @Transactional(readOnly = true)
     public User authenticate(String username, String password) {
         Optional<User> user = userRepository.findByUsername(username);
         if (user.isPresent() && user.get().getPassword().equals(password)) {
@@ -48,4 +73,22 @@ public class UserService {
         }
         return null;
     }
-}
\ No newline at end of file
+
+    // Inner class for the cached, credential-free view of a user
+    public static class UserSummary {
+        private final Long id;
+        private final String username;
+        private final String email;
+
+        public UserSummary(Long id, String username, String email) {
+            this.id = id;
+            this.username = username;
+            this.email = email;
+        }
+
+        // Getters
+        public Long getId() { return id; }
+        public String getUsername() { return username; }
+        public String getEmail() { return email; }
+    }
+}
@@ -0,0 +1,12 @@
+-- Upgrade for databases created before the activity feed.
+-- The new indexes lead with group_id, so they replace the single-column ones without blocking writes.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_group_members_group_joined
+    ON group_members(group_id, joined_date DESC, id DESC);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expenses_group_created
+    ON expenses(group_id, created_date DESC, id DESC);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_group_members_group;
+DROP INDEX CONCURRENTLY IF EXISTS idx_expenses_group;
+
+ALTER INDEX idx_group_members_group_joined RENAME TO idx_group_members_group;
+ALTER INDEX idx_expenses_group_created RENAME TO idx_expenses_group;
@@ -0,0 +1,21 @@
+-- Upgrade for databases created before expense edit and delete.
+CREATE TABLE IF NOT EXISTS expense_audit (
+    id BIGSERIAL PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    expense_date DATE NOT NULL,
+    splits JSONB NOT NULL,
+    after_state JSONB,
+    changed_by BIGINT NOT NULL,
+    changed_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE
+);
+
+-- Tables created from an earlier split-app.sql only recorded the before-state
+ALTER TABLE expense_audit ADD COLUMN IF NOT EXISTS after_state JSONB;
+
+CREATE INDEX IF NOT EXISTS idx_expense_audit_expense ON expense_audit(expense_id);
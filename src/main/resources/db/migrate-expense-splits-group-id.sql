@@ -0,0 +1,59 @@
+-- Upgrade for databases created before expense_splits.group_id existed.
+-- Run every step, in order and outside a transaction block, BEFORE deploying the code that reads
+-- group_id: balances, settlements and settle-all filter on it and would skip rows left NULL.
+
+-- 1. Add the column. The foreign key is added NOT VALID so it does not scan the table under an
+--    ACCESS EXCLUSIVE lock; it is validated in step 4 under a lock that allows writes.
+ALTER TABLE expense_splits ADD COLUMN IF NOT EXISTS group_id BIGINT;
+ALTER TABLE expense_splits DROP CONSTRAINT IF EXISTS expense_splits_group_id_fkey;
+ALTER TABLE expense_splits ADD CONSTRAINT expense_splits_group_id_fkey
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE NOT VALID;
+
+-- 2. Nodes still running the old code insert splits without group_id; fill it in for them until the
+--    new code is deployed everywhere (dropped in step 7).
+CREATE OR REPLACE FUNCTION expense_splits_fill_group_id() RETURNS trigger AS $$
+BEGIN
+    SELECT group_id INTO NEW.group_id FROM expenses WHERE id = NEW.expense_id;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS expense_splits_fill_group_id ON expense_splits;
+CREATE TRIGGER expense_splits_fill_group_id BEFORE INSERT ON expense_splits
+    FOR EACH ROW WHEN (NEW.group_id IS NULL) EXECUTE FUNCTION expense_splits_fill_group_id();
+
+-- 3. Backfill existing rows, committing each id range so row locks are only held briefly.
+DO $$
+DECLARE
+    max_id BIGINT;
+    batch_start BIGINT := 0;
+BEGIN
+    SELECT MAX(id) INTO max_id FROM expense_splits WHERE group_id IS NULL;
+    WHILE max_id IS NOT NULL AND batch_start < max_id LOOP
+        UPDATE expense_splits es SET group_id = e.group_id FROM expenses e
+        WHERE e.id = es.expense_id AND es.id > batch_start AND es.id <= batch_start + 5000 AND es.group_id IS NULL;
+        COMMIT;
+        batch_start := batch_start + 5000;
+    END LOOP;
+END;
+$$;
+
+-- 4. Validate the foreign key and the NOT NULL rule (SHARE UPDATE EXCLUSIVE: writes continue), then let
+--    SET NOT NULL reuse the validated check instead of scanning the table again.
+ALTER TABLE expense_splits VALIDATE CONSTRAINT expense_splits_group_id_fkey;
+ALTER TABLE expense_splits ADD CONSTRAINT expense_splits_group_id_not_null CHECK (group_id IS NOT NULL) NOT VALID;
+ALTER TABLE expense_splits VALIDATE CONSTRAINT expense_splits_group_id_not_null;
+ALTER TABLE expense_splits ALTER COLUMN group_id SET NOT NULL;
+ALTER TABLE expense_splits DROP CONSTRAINT expense_splits_group_id_not_null;
+
+-- 5. Covering indexes for the balance queries, built without blocking writes.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expense_splits_group_user
+    ON expense_splits(group_id, user_id) INCLUDE (amount_owed);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expenses_group_payer
+    ON expenses(group_id, paid_by_user_id) INCLUDE (amount);
+
+-- 6. Deploy the application.
+
+-- 7. Once no node runs the old code any more:
+-- DROP TRIGGER expense_splits_fill_group_id ON expense_splits;
+-- DROP FUNCTION expense_splits_fill_group_id();
@@ -0,0 +1,3 @@
+-- Upgrade for databases created before cache invalidation.
+-- A constant default does not rewrite the table on PostgreSQL 11+.
+ALTER TABLE groups ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,36 @@
+-- Upgrade for databases created before history compaction.
+CREATE TABLE IF NOT EXISTS archived_expenses (
+    id BIGINT PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    expense_date DATE NOT NULL,
+    created_date TIMESTAMP,
+    opening_balance BOOLEAN NOT NULL DEFAULT FALSE,
+    archived_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE
+);
+
+CREATE TABLE IF NOT EXISTS archived_expense_splits (
+    id BIGINT PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    amount_owed DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (expense_id) REFERENCES archived_expenses(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_archived_expenses_group ON archived_expenses(group_id, id);
+CREATE INDEX IF NOT EXISTS idx_archived_expense_splits_expense ON archived_expense_splits(expense_id);
+
+-- Opening-balance rows are marked explicitly rather than recognised by their description
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS opening_balance BOOLEAN NOT NULL DEFAULT FALSE;
+ALTER TABLE archived_expenses ADD COLUMN IF NOT EXISTS opening_balance BOOLEAN NOT NULL DEFAULT FALSE;
+
+-- Rows written by earlier compaction runs are dated at midnight of their expense date; a user expense
+-- with the same description is created at the time of day it was entered
+UPDATE expenses SET opening_balance = TRUE
+WHERE description = 'Opening balance' AND created_date = CAST(expense_date AS TIMESTAMP) AND NOT opening_balance;
+UPDATE archived_expenses SET opening_balance = TRUE
+WHERE description = 'Opening balance' AND created_date = CAST(expense_date AS TIMESTAMP) AND NOT opening_balance;
@@ -0,0 +1,37 @@
+-- Upgrade for databases created before multi-currency expenses.
+-- Existing expenses keep a NULL currency, which means the group's base currency.
+ALTER TABLE groups ADD COLUMN IF NOT EXISTS base_currency CHAR(3) NOT NULL DEFAULT 'INR';
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS currency CHAR(3);
+ALTER TABLE expenses ADD COLUMN IF NOT EXISTS fx_rate DECIMAL(20,10);
+ALTER TABLE expense_splits ADD COLUMN IF NOT EXISTS currency CHAR(3);
+ALTER TABLE expense_splits ADD COLUMN IF NOT EXISTS fx_rate DECIMAL(20,10);
+ALTER TABLE expense_audit ADD COLUMN IF NOT EXISTS currency CHAR(3);
+
+CREATE TABLE IF NOT EXISTS exchange_rates (
+    currency CHAR(3) PRIMARY KEY,
+    rate DECIMAL(18,8) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 1,
+    updated_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Foreign-currency expenses recorded before fx_rate existed were rolled up at the rate of the day;
+-- the current rate is the closest stand-in. Fixing it now keeps balances and rollups stable from here on
+UPDATE expenses x SET fx_rate = ROUND(r.rate / b.rate, 10)
+FROM groups g, exchange_rates r, exchange_rates b
+WHERE g.id = x.group_id AND r.currency = x.currency AND b.currency = g.base_currency
+  AND x.currency IS NOT NULL AND x.fx_rate IS NULL;
+UPDATE expense_splits es SET fx_rate = x.fx_rate
+FROM expenses x
+WHERE x.id = es.expense_id AND x.fx_rate IS NOT NULL AND es.fx_rate IS NULL;
+
+-- Rebuild the balance covering indexes with the stored rate, without blocking writes
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expense_splits_group_user_currency
+    ON expense_splits(group_id, user_id) INCLUDE (fx_rate, amount_owed);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_expenses_group_payer_currency
+    ON expenses(group_id, paid_by_user_id) INCLUDE (fx_rate, amount);
+
+DROP INDEX CONCURRENTLY IF EXISTS idx_expense_splits_group_user;
+DROP INDEX CONCURRENTLY IF EXISTS idx_expenses_group_payer;
+
+ALTER INDEX idx_expense_splits_group_user_currency RENAME TO idx_expense_splits_group_user;
+ALTER INDEX idx_expenses_group_payer_currency RENAME TO idx_expenses_group_payer;
@@ -0,0 +1,24 @@
+-- Upgrade for databases created before recurring expense templates.
+CREATE TABLE IF NOT EXISTS recurring_expenses (
+    id BIGSERIAL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    participant_ids BIGINT[],
+    frequency VARCHAR(10) NOT NULL,
+    interval_count INT NOT NULL DEFAULT 1,
+    start_date DATE NOT NULL,
+    end_date DATE,
+    next_run_date DATE NOT NULL,
+    occurrence_count INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_by BIGINT NOT NULL,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (paid_by_user_id) REFERENCES users(id),
+    FOREIGN KEY (created_by) REFERENCES users(id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_recurring_expenses_due ON recurring_expenses(next_run_date) WHERE active;
+CREATE INDEX IF NOT EXISTS idx_recurring_expenses_group ON recurring_expenses(group_id);
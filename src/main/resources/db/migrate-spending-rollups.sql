@@ -0,0 +1,15 @@
+-- Upgrade for databases created before monthly spending rollups.
+-- Apply before deploying: every expense write updates this table in the same transaction.
+-- Then start one node with CODEWISH_ANALYTICS_BACKFILL=true to fill it from existing expenses.
+CREATE TABLE IF NOT EXISTS spending_rollups (
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    month DATE NOT NULL,
+    total_paid DECIMAL(14,2) NOT NULL DEFAULT 0,
+    total_owed DECIMAL(14,2) NOT NULL DEFAULT 0,
+    settlements_paid DECIMAL(14,2) NOT NULL DEFAULT 0,
+    settlements_received DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, month, user_id),
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
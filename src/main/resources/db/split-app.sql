@@ -14,6 +14,10 @@ CREATE TABLE groups (
     description TEXT,
     created_by BIGINT NOT NULL,
     created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Bumped on every change to the group's data; sent with cache invalidations
+    version BIGINT NOT NULL DEFAULT 0,
+    -- Balances and settlements are shown in this currency; fixed once the group exists
+    base_currency CHAR(3) NOT NULL DEFAULT 'INR',
     FOREIGN KEY (created_by) REFERENCES users(id)
 );
 
@@ -34,9 +38,15 @@ CREATE TABLE expenses (
     group_id BIGINT NOT NULL,
     description VARCHAR(255) NOT NULL,
     amount DECIMAL(10,2) NOT NULL,
+    -- NULL means the group's base currency
+    currency CHAR(3),
+    -- Rate into the base currency fixed when the expense is recorded (NULL = 1); balances and rollups use it
+    fx_rate DECIMAL(20,10),
     paid_by_user_id BIGINT NOT NULL,
     expense_date DATE NOT NULL,
     created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    -- Written by history compaction to carry a member's balance forward; hidden from lists, feed and search
+    opening_balance BOOLEAN NOT NULL DEFAULT FALSE,
     FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
     FOREIGN KEY (paid_by_user_id) REFERENCES users(id)
 );
@@ -45,17 +55,123 @@ CREATE TABLE expenses (
 CREATE TABLE expense_splits (
     id BIGSERIAL PRIMARY KEY,
     expense_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
     user_id BIGINT NOT NULL,
     amount_owed DECIMAL(10,2) NOT NULL,
+    -- Copied from the expense (NULL = group base currency)
+    currency CHAR(3),
+    -- Copied from the expense so balances use the rate it was recorded at (NULL = 1)
+    fx_rate DECIMAL(20,10),
     FOREIGN KEY (expense_id) REFERENCES expenses(id) ON DELETE CASCADE,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
     FOREIGN KEY (user_id) REFERENCES users(id),
     UNIQUE(expense_id, user_id)
 );
 
 -- Create indexes for better performance
 CREATE INDEX idx_group_members_user ON group_members(user_id);
-CREATE INDEX idx_group_members_group ON group_members(group_id);
-CREATE INDEX idx_expenses_group ON expenses(group_id);
+-- Also serve the activity feed's keyset reads (newest first, id as tie-break)
+CREATE INDEX idx_group_members_group ON group_members(group_id, joined_date DESC, id DESC);
+CREATE INDEX idx_expenses_group ON expenses(group_id, created_date DESC, id DESC);
 CREATE INDEX idx_expenses_user ON expenses(paid_by_user_id);
 CREATE INDEX idx_expense_splits_expense ON expense_splits(expense_id);
-CREATE INDEX idx_expense_splits_user ON expense_splits(user_id);
\ No newline at end of file
+CREATE INDEX idx_expense_splits_user ON expense_splits(user_id);
+
+-- Covering indexes so per-group balance sums (per user and stored rate) are index-only scans
+CREATE INDEX idx_expense_splits_group_user ON expense_splits(group_id, user_id) INCLUDE (fx_rate, amount_owed);
+CREATE INDEX idx_expenses_group_payer ON expenses(group_id, paid_by_user_id) INCLUDE (fx_rate, amount);
+
+-- Monthly spending rollups per group member, maintained incrementally on every expense write
+CREATE TABLE spending_rollups (
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    month DATE NOT NULL,
+    total_paid DECIMAL(14,2) NOT NULL DEFAULT 0,
+    total_owed DECIMAL(14,2) NOT NULL DEFAULT 0,
+    settlements_paid DECIMAL(14,2) NOT NULL DEFAULT 0,
+    settlements_received DECIMAL(14,2) NOT NULL DEFAULT 0,
+    PRIMARY KEY (group_id, month, user_id),
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (user_id) REFERENCES users(id)
+);
+
+-- Recurring expense templates (rent, subscriptions, utilities)
+CREATE TABLE recurring_expenses (
+    id BIGSERIAL PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    participant_ids BIGINT[],
+    frequency VARCHAR(10) NOT NULL,
+    interval_count INT NOT NULL DEFAULT 1,
+    start_date DATE NOT NULL,
+    end_date DATE,
+    next_run_date DATE NOT NULL,
+    occurrence_count INT NOT NULL DEFAULT 0,
+    active BOOLEAN NOT NULL DEFAULT TRUE,
+    created_by BIGINT NOT NULL,
+    created_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE,
+    FOREIGN KEY (paid_by_user_id) REFERENCES users(id),
+    FOREIGN KEY (created_by) REFERENCES users(id)
+);
+
+CREATE INDEX idx_recurring_expenses_due ON recurring_expenses(next_run_date) WHERE active;
+CREATE INDEX idx_recurring_expenses_group ON recurring_expenses(group_id);
+
+-- Archive of compacted (fully settled) expense history; live tables keep one opening-balance row per member
+CREATE TABLE archived_expenses (
+    id BIGINT PRIMARY KEY,
+    group_id BIGINT NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    paid_by_user_id BIGINT NOT NULL,
+    expense_date DATE NOT NULL,
+    created_date TIMESTAMP,
+    opening_balance BOOLEAN NOT NULL DEFAULT FALSE,
+    archived_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE
+);
+
+CREATE TABLE archived_expense_splits (
+    id BIGINT PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    user_id BIGINT NOT NULL,
+    amount_owed DECIMAL(10,2) NOT NULL,
+    FOREIGN KEY (expense_id) REFERENCES archived_expenses(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_archived_expenses_group ON archived_expenses(group_id, id);
+CREATE INDEX idx_archived_expense_splits_expense ON archived_expense_splits(expense_id);
+
+-- Audit trail of expense edits and deletions: the columns are the row before the change,
+-- after_state the row after an edit (NULL for a delete)
+CREATE TABLE expense_audit (
+    id BIGSERIAL PRIMARY KEY,
+    expense_id BIGINT NOT NULL,
+    group_id BIGINT NOT NULL,
+    action VARCHAR(10) NOT NULL,
+    description VARCHAR(255) NOT NULL,
+    amount DECIMAL(10,2) NOT NULL,
+    currency CHAR(3),
+    paid_by_user_id BIGINT NOT NULL,
+    expense_date DATE NOT NULL,
+    splits JSONB NOT NULL,
+    after_state JSONB,
+    changed_by BIGINT NOT NULL,
+    changed_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (group_id) REFERENCES groups(id) ON DELETE CASCADE
+);
+
+CREATE INDEX idx_expense_audit_expense ON expense_audit(expense_id);
+
+-- Exchange rates: value of one unit of each currency in a common reference currency.
+-- Loaded into an in-memory snapshot; bump version when rates change so nodes reload.
+CREATE TABLE exchange_rates (
+    currency CHAR(3) PRIMARY KEY,
+    rate DECIMAL(18,8) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 1,
+    updated_date TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,57 @@
+package com.codewish.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TokenBucketRateLimiterTest {
+
+	@Test
+	void allowsBurstThenRejectsWithRetryHint() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+
+		for (int i = 0; i < 5; i++) {
+			assertEquals(0, limiter.tryAcquire("user:1", 5, 60));
+		}
+
+		long wait = limiter.tryAcquire("user:1", 5, 60);
+		assertTrue(wait > 0);
+		assertTrue(wait <= 1_000_000_000L);
+	}
+
+	@Test
+	void keysAreIndependent() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+
+		assertEquals(0, limiter.tryAcquire("user:1", 1, 1));
+		assertTrue(limiter.tryAcquire("user:1", 1, 1) > 0);
+		assertEquals(0, limiter.tryAcquire("user:2", 1, 1));
+	}
+
+	@Test
+	void failsOpenWhenFullOfActiveBuckets() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(1);
+
+		assertEquals(0, limiter.tryAcquire("user:1", 1, 1));
+		assertEquals(0, limiter.tryAcquire("user:2", 1, 1));
+		assertEquals(1, limiter.size());
+	}
+
+	@Test
+	void chargesNoBucketWhenAnyIsEmpty() {
+		TokenBucketRateLimiter limiter = new TokenBucketRateLimiter(100);
+		assertEquals(0, limiter.tryAcquire("group:1", 1, 1));
+
+		TokenBucketRateLimiter.Permit user = new TokenBucketRateLimiter.Permit("user:1", 1, 1);
+		TokenBucketRateLimiter.Permit group = new TokenBucketRateLimiter.Permit("group:1", 1, 1);
+		assertTrue(limiter.tryAcquireAll(List.of(user, group)) > 0);
+		assertEquals(0, user.getWait());
+		assertTrue(group.getWait() > 0);
+
+		// The user's token was not spent on the rejected request
+		assertEquals(0, limiter.tryAcquire("user:1", 1, 1));
+	}
+}
@@ -0,0 +1,121 @@
+package com.codewish.service;
+
+import com.codewish.repository.ExpenseSplitRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BalanceServiceTest {
+
+	@Test
+	void transfersSettleEveryBalance() {
+		Map<Long, BigDecimal> balances = new HashMap<>();
+		balances.put(1L, new BigDecimal("60.00"));
+		balances.put(2L, new BigDecimal("-25.00"));
+		balances.put(3L, new BigDecimal("-25.00"));
+		balances.put(4L, new BigDecimal("-10.00"));
+
+		List<BalanceService.Settlement> transfers = BalanceService.computeTransfers(balances, usernames(1L, 2L, 3L, 4L));
+
+		assertEquals(3, transfers.size());
+		Map<Long, BigDecimal> after = new HashMap<>(balances);
+		for (BalanceService.Settlement transfer : transfers) {
+			after.merge(transfer.getFromUserId(), transfer.getAmount(), BigDecimal::add);
+			after.merge(transfer.getToUserId(), transfer.getAmount().negate(), BigDecimal::add);
+		}
+		after.values().forEach(balance -> assertEquals(0, balance.signum()));
+	}
+
+	@Test
+	void debtorIsNeverAskedForMoreThanOwed() {
+		Map<Long, BigDecimal> balances = new HashMap<>();
+		balances.put(1L, new BigDecimal("30.00"));
+		balances.put(2L, new BigDecimal("30.00"));
+		balances.put(3L, new BigDecimal("-40.00"));
+		balances.put(4L, new BigDecimal("-20.00"));
+
+		List<BalanceService.Settlement> transfers = BalanceService.computeTransfers(balances, usernames(1L, 2L, 3L, 4L));
+
+		BigDecimal paidBy3 = transfers.stream().filter(t -> t.getFromUserId() == 3L)
+				.map(BalanceService.Settlement::getAmount).reduce(BigDecimal.ZERO, BigDecimal::add);
+		assertEquals(0, paidBy3.compareTo(new BigDecimal("40.00")));
+		assertTrue(transfers.size() <= 3);
+	}
+
+	// Stored rate of a USD expense in an INR group: 1 USD = 83.33... INR
+	private static final BigDecimal USD_TO_INR = new BigDecimal("83.3333333333");
+
+	@Test
+	void mixedCurrencyBalancesAreSummedInBaseCurrencyAndRoundedOnce() {
+		ExpenseSplitRepository splits = mock(ExpenseSplitRepository.class);
+		// User 1 paid 100 USD split with user 2; user 2 paid 1000 INR (base, so no rate) split with user 1
+		when(splits.getTotalPaidPerUserInGroup(7L)).thenReturn(rows(
+				new Object[]{1L, USD_TO_INR, new BigDecimal("100.00")},
+				new Object[]{2L, null, new BigDecimal("1000.00")}));
+		when(splits.getTotalOwedPerUserInGroup(7L)).thenReturn(rows(
+				new Object[]{1L, USD_TO_INR, new BigDecimal("50.00")},
+				new Object[]{1L, null, new BigDecimal("500.00")},
+				new Object[]{2L, USD_TO_INR, new BigDecimal("50.00")},
+				new Object[]{2L, null, new BigDecimal("500.00")}));
+
+		Map<Long, BigDecimal> balances = balanceService(splits).getGroupBalances(7L);
+
+		// 50 USD = 4166.666... INR; rounding each converted sum first would not net to zero
+		assertEquals(new BigDecimal("3666.67"), balances.get(1L));
+		assertEquals(new BigDecimal("-3666.67"), balances.get(2L));
+		assertEquals(0, balances.get(1L).add(balances.get(2L)).signum());
+	}
+
+	@Test
+	void settledDebtStaysSettledAfterRateChange() {
+		ExpenseSplitRepository splits = mock(ExpenseSplitRepository.class);
+		// The group above after settle-all (user 2 paid user 1 3666.67 INR). The rate then moved to 80,
+		// and user 1 paid another 10 USD for user 2, recorded at the new rate
+		BigDecimal refreshedRate = new BigDecimal("80.0000000000");
+		when(splits.getTotalPaidPerUserInGroup(7L)).thenReturn(rows(
+				new Object[]{1L, USD_TO_INR, new BigDecimal("100.00")},
+				new Object[]{1L, refreshedRate, new BigDecimal("10.00")},
+				new Object[]{2L, null, new BigDecimal("4666.67")}));
+		when(splits.getTotalOwedPerUserInGroup(7L)).thenReturn(rows(
+				new Object[]{1L, USD_TO_INR, new BigDecimal("50.00")},
+				new Object[]{1L, null, new BigDecimal("4166.67")},
+				new Object[]{2L, USD_TO_INR, new BigDecimal("50.00")},
+				new Object[]{2L, refreshedRate, new BigDecimal("10.00")},
+				new Object[]{2L, null, new BigDecimal("500.00")}));
+
+		Map<Long, BigDecimal> balances = balanceService(splits).getGroupBalances(7L);
+
+		// Only the new expense is outstanding; the settled one keeps the rate it was recorded at
+		assertEquals(new BigDecimal("800.00"), balances.get(1L));
+		assertEquals(new BigDecimal("-800.00"), balances.get(2L));
+	}
+
+	private static BalanceService balanceService(ExpenseSplitRepository splits) {
+		BalanceService balanceService = new BalanceService();
+		ReflectionTestUtils.setField(balanceService, "expenseSplitRepository", splits);
+		return balanceService;
+	}
+
+	private static List<Object[]> rows(Object[]... rows) {
+		return Arrays.asList(rows);
+	}
+
+	private static Map<Long, String> usernames(Long... userIds) {
+		Map<Long, String> usernames = new LinkedHashMap<>();
+		for (Long userId : userIds) {
+			usernames.put(userId, "user" + userId);
+		}
+		return usernames;
+	}
+}
@@ -0,0 +1,36 @@
+package com.codewish.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ExchangeRateServiceTest {
+
+	// Value of one unit in USD, as in exchange-rates.csv
+	private final ExchangeRateService.RateSnapshot rates = new ExchangeRateService.RateSnapshot(1, Map.of(
+			"USD", new BigDecimal("1.00000000"),
+			"INR", new BigDecimal("0.01200000")));
+
+	@Test
+	void factorConvertsFromFirstCurrencyIntoSecond() {
+		BigDecimal usdToInr = rates.factor("USD", "INR");
+		BigDecimal inrToUsd = rates.factor("INR", "USD");
+
+		// 1 USD buys about 83.33 INR, and 1 INR about 0.012 USD
+		assertEquals(0, new BigDecimal("83.33").compareTo(usdToInr.setScale(2, RoundingMode.HALF_UP)));
+		assertEquals(0, new BigDecimal("0.012").compareTo(inrToUsd));
+		assertEquals(0, BigDecimal.ONE.compareTo(rates.factor("INR", "INR")));
+	}
+
+	@Test
+	void unsupportedCurrencyIsRejected() {
+		RuntimeException error = assertThrows(RuntimeException.class, () -> rates.factor("XYZ", "INR"));
+		assertEquals("No exchange rate for XYZ", error.getMessage());
+		assertThrows(RuntimeException.class, () -> rates.factor("USD", "XYZ"));
+	}
+}
@@ -0,0 +1,75 @@
+package com.codewish.service;
+
+import org.junit.jupiter.api.Test;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GroupExpenseIndexTest {
+
+	private GroupExpenseIndex indexWith(String... descriptions) {
+		GroupExpenseIndex index = new GroupExpenseIndex(1L);
+		long id = 1;
+		for (String description : descriptions) {
+			index.add(new GroupExpenseIndex.IndexedExpense(id++, description, BigDecimal.TEN, "INR", LocalDate.of(2025, 1, 1)));
+		}
+		return index;
+	}
+
+	@Test
+	void tokenizeLowercasesAndStripsAccents() {
+		assertEquals(List.of("cafe", "uber", "42"), GroupExpenseIndex.tokenize("Café-UBER #42"));
+	}
+
+	@Test
+	void exactMatchRanksAbovePrefixMatch() {
+		GroupExpenseIndex index = indexWith("Hotels booking", "Hotel");
+
+		List<GroupExpenseIndex.ScoredExpense> results = index.search(List.of("hotel"), 10);
+
+		assertEquals(2, results.size());
+		assertEquals(2L, results.get(0).getExpense().getExpenseId());
+	}
+
+	@Test
+	void allQueryTokensMustMatch() {
+		GroupExpenseIndex index = indexWith("Uber to airport", "Uber eats", "Airport parking");
+
+		List<GroupExpenseIndex.ScoredExpense> results = index.search(List.of("uber", "air"), 10);
+
+		assertEquals(1, results.size());
+		assertEquals(1L, results.get(0).getExpense().getExpenseId());
+	}
+
+	@Test
+	void removeDropsPostingsAndMemory() {
+		GroupExpenseIndex index = indexWith("Dinner");
+		long before = index.getEstimatedBytes();
+
+		index.remove(1L);
+
+		assertTrue(index.search(List.of("dinner"), 10).isEmpty());
+		assertTrue(index.getEstimatedBytes() < before);
+		assertEquals(0, index.getEstimatedBytes());
+	}
+
+	@Test
+	void changesBeforeLoadAreNotUndoneByStaleSnapshot() {
+		GroupExpenseIndex index = new GroupExpenseIndex(1L);
+		index.applyChange(target -> target.remove(1L));
+		index.applyChange(target -> target.add(new GroupExpenseIndex.IndexedExpense(
+				2L, "Taxi home", BigDecimal.ONE, "INR", LocalDate.of(2025, 1, 2))));
+
+		// The snapshot was read before the delete and the edit were visible
+		index.ensureLoaded(() -> List.of(
+				new GroupExpenseIndex.IndexedExpense(1L, "Dinner", BigDecimal.TEN, "INR", LocalDate.of(2025, 1, 1)),
+				new GroupExpenseIndex.IndexedExpense(2L, "Taxi", BigDecimal.TEN, "INR", LocalDate.of(2025, 1, 1))));
+
+		assertTrue(index.search(List.of("dinner"), 10).isEmpty());
+		assertEquals(1, index.search(List.of("home"), 10).size());
+		assertEquals(1, index.size());
+	}
+}